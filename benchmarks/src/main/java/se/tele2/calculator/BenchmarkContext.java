@@ -0,0 +1,33 @@
+package se.tele2.calculator;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Starts the service without a web server on a fresh in-memory H2 database, so benchmarks measure the real data store
+ * and service beans without touching the file database of the service.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param args more arguments of the service, for example {@code --calculator.planner.enabled=true}
+     */
+    public static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(CalculatorApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(Stream.concat(Stream.of(
+                                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                                "--spring.h2.console.enabled=false",
+                                "--spring.jpa.show-sql=false",
+                                "--logging.level.root=warn"), Stream.of(args))
+                        .toArray(String[]::new));
+    }
+}
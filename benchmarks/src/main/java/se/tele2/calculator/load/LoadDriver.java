@@ -0,0 +1,147 @@
+package se.tele2.calculator.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a fixed number of calculate requests in flight against a running service and reports throughput, latency
+ * and, when the service runs on the same Linux host, the peak number of its threads (grouped by name) and of its
+ * established connections on the service port.
+ * Has no dependencies, so it runs as a single source file:
+ * {@code java src/main/java/se/tele2/calculator/load/LoadDriver.java --url http://localhost:8080 --pid 1234}
+ */
+public class LoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "100000"));
+        int distinct = Integer.parseInt(options.getOrDefault("distinct", "10000"));
+        String pid = options.get("pid");
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(8))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[requests];
+        Map<String, Integer> peakThreads = new ConcurrentHashMap<>();
+        AtomicLong peakConnections = new AtomicLong();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        if (pid != null) {
+            sampler.scheduleAtFixedRate(() -> sample(pid, url.getPort(), peakThreads, peakConnections), 0, 100, TimeUnit.MILLISECONDS);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[requests];
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int request = i;
+            long sent = System.nanoTime();
+            responses[i] = client.sendAsync(calculation(url, distinct), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[request] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(responses).exceptionally(failure -> null).join();
+        long elapsed = System.nanoTime() - start;
+        sampler.shutdownNow();
+
+        Arrays.sort(latencies);
+        System.out.printf("requests %d, concurrency %d, errors %d%n", requests, concurrency, errors.get());
+        System.out.printf("throughput %.0f requests/s%n", requests / (elapsed / 1e9));
+        System.out.printf("latency p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                latencies[requests / 2] / 1e6, latencies[(int) (requests * 0.99)] / 1e6, latencies[requests - 1] / 1e6);
+        if (pid != null) {
+            System.out.printf("peak established connections on port %d: %d%n", url.getPort(), peakConnections.get());
+            System.out.printf("peak threads: %d%n", peakThreads.getOrDefault("total", 0));
+            new TreeMap<>(peakThreads).forEach((group, threads) -> {
+                if (!group.equals("total")) {
+                    System.out.printf("  %-32s %d%n", group, threads);
+                }
+            });
+        }
+        System.exit(0);
+    }
+
+    private static HttpRequest calculation(URI url, int distinct) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(distinct);
+        String[] operations = {"addition", "subtraction", "multiplication", "division"};
+        String body = "{\"inputs\":[" + key + ".5," + (key % 7 + 1) + ".25," + (key % 13 + 2) + ".0]}";
+        return HttpRequest.newBuilder(url.resolve("/" + operations[key % operations.length]))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static void sample(String pid, int port, Map<String, Integer> peakThreads, AtomicLong peakConnections) {
+        Map<String, Integer> threads = new HashMap<>();
+        try (Stream<Path> tasks = Files.list(Path.of("/proc", pid, "task"))) {
+            tasks.forEach(task -> {
+                try {
+                    String name = Files.readString(task.resolve("comm")).trim().replaceAll("[-#]?\\d+$", "");
+                    threads.merge(name, 1, Integer::sum);
+                    threads.merge("total", 1, Integer::sum);
+                } catch (IOException e) {
+                    // the thread ended while it was listed
+                }
+            });
+            threads.forEach((group, count) -> peakThreads.merge(group, count, Math::max));
+            peakConnections.accumulateAndGet(established(pid, port), Math::max);
+        } catch (IOException e) {
+            // the service is gone
+        }
+    }
+
+    private static long established(String pid, int port) throws IOException {
+        String localPort = String.format(":%04X ", port);
+        long count = 0;
+        for (String table : new String[]{"tcp", "tcp6"}) {
+            Path path = Path.of("/proc", pid, "net", table);
+            if (Files.exists(path)) {
+                count += Files.readAllLines(path).stream()
+                        .skip(1)
+                        .map(String::trim)
+                        .map(line -> line.split("\\s+"))
+                        .filter(fields -> (fields[1] + " ").endsWith(localPort) && fields[3].equals("01"))
+                        .count();
+            }
+        }
+        return count;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
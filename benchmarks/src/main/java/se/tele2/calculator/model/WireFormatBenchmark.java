@@ -0,0 +1,57 @@
+package se.tele2.calculator.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read an {@link InputRequest} of 1M random doubles from JSON text and from CBOR, which carries every double
+ * as its 8 IEEE-754 bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final CBORMapper cborMapper = new CBORMapper();
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setUp() throws IOException {
+        InputRequest request = new InputRequest(new Random(42).doubles(size, -1e6, 1e6).toArray());
+        json = jsonMapper.writeValueAsBytes(request);
+        cbor = cborMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public InputRequest parseJson() throws IOException {
+        return jsonMapper.readValue(json, InputRequest.class);
+    }
+
+    @Benchmark
+    public InputRequest parseCbor() throws IOException {
+        return cborMapper.readValue(cbor, InputRequest.class);
+    }
+}
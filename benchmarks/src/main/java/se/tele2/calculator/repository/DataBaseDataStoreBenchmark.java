@@ -0,0 +1,120 @@
+package se.tele2.calculator.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import se.tele2.calculator.BenchmarkContext;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures {@link DataBaseDataStore} against an in-memory H2 database holding {@value #STORED} results.
+ * Saves always insert new numbers, so the table keeps growing while they run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class DataBaseDataStoreBenchmark {
+
+    private static final int STORED = 10_000;
+    private static final int BATCH = 50;
+
+    /**
+     * Inputs per stored result, 3 small whole numbers or that many random doubles.
+     */
+    @Param({"3", "100"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private DataBaseDataStore dataStore;
+    private List<Integer> ids;
+    private int next;
+    private long unique;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        dataStore = context.getBean(DataBaseDataStore.class);
+        List<Result> results = new ArrayList<>(STORED);
+        for (int i = 0; i < STORED; i++) {
+            results.add(result(numbers(i)));
+        }
+        ids = dataStore.saveAll(results).stream()
+                .map(Result::getId)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Result> findByNumbersAndOperation() {
+        return dataStore.findByNumbersAndOperation(numbers(next++ % STORED), Operation.ADDITION);
+    }
+
+    @Benchmark
+    public Optional<Result> findMissing() {
+        return dataStore.findByNumbersAndOperation(numbers(next++ % STORED), Operation.DIVISION);
+    }
+
+    @Benchmark
+    public Optional<Result> findById() {
+        return dataStore.findById(ids.get(next++ % STORED));
+    }
+
+    @Benchmark
+    public Result save() {
+        return dataStore.save(result("-" + unique++));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Result> saveAll() {
+        List<Result> results = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            results.add(result("-" + unique++));
+        }
+        return dataStore.saveAll(results);
+    }
+
+    private String numbers(int i) {
+        if (size == 3) {
+            return i + ".0," + (i + 1) + ".0," + (i + 2) + ".5";
+        }
+        return new SplittableRandom(i).doubles(size, -1000, 1000)
+                .sorted()
+                .mapToObj(Double::toString)
+                .collect(Collectors.joining(","));
+    }
+
+    private static Result result(String numbers) {
+        return Result.builder()
+                .operation(Operation.ADDITION)
+                .result(1.0)
+                .numbers(numbers)
+                .build();
+    }
+}
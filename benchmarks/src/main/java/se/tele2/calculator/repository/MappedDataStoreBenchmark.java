@@ -0,0 +1,107 @@
+package se.tele2.calculator.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MappedDataStore} with the same operations and data as {@link DataBaseDataStoreBenchmark}.
+ * The file lives in a temporary directory and is deleted after each fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class MappedDataStoreBenchmark {
+
+    private static final int STORED = 10_000;
+    private static final int BATCH = 50;
+
+    private Path file;
+    private MappedDataStore dataStore;
+    private List<Integer> ids;
+    private int next;
+    private long unique;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("results", ".dat");
+        dataStore = new MappedDataStore(file, 64 * 1024 * 1024, STORED);
+        List<Result> results = new ArrayList<>(STORED);
+        for (int i = 0; i < STORED; i++) {
+            results.add(result(numbers(i)));
+        }
+        ids = dataStore.saveAll(results).stream()
+                .map(Result::getId)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dataStore.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public Optional<Result> findByNumbersAndOperation() {
+        return dataStore.findByNumbersAndOperation(numbers(next++ % STORED), Operation.ADDITION);
+    }
+
+    @Benchmark
+    public Optional<Result> findMissing() {
+        return dataStore.findByNumbersAndOperation(numbers(next++ % STORED), Operation.DIVISION);
+    }
+
+    @Benchmark
+    public Optional<Result> findById() {
+        return dataStore.findById(ids.get(next++ % STORED));
+    }
+
+    @Benchmark
+    public Result save() {
+        return dataStore.save(result("-" + unique++));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Result> saveAll() {
+        List<Result> results = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            results.add(result("-" + unique++));
+        }
+        return dataStore.saveAll(results);
+    }
+
+    private static String numbers(int i) {
+        return i + ".0," + (i + 1) + ".0," + (i + 2) + ".5";
+    }
+
+    private static Result result(String numbers) {
+        return Result.builder()
+                .operation(Operation.ADDITION)
+                .result(1.0)
+                .numbers(numbers)
+                .build();
+    }
+}
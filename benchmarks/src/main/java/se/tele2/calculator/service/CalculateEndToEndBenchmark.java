@@ -0,0 +1,75 @@
+package se.tele2.calculator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import se.tele2.calculator.BenchmarkContext;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultResponse;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link CalculatorService#calculate} with every bean of the service, the result cache and an in-memory H2
+ * database included. A hit asks for inputs that are stored already, a miss for new inputs that are calculated and
+ * inserted. With the planner a miss of a few inputs is calculated without the store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class CalculateEndToEndBenchmark {
+
+    @Param({"2", "100"})
+    private int size;
+
+    @Param({"ADDITION", "DIVISION"})
+    private Operation operation;
+
+    @Param({"false", "true"})
+    private boolean planner;
+
+    private ConfigurableApplicationContext context;
+    private CalculatorService service;
+    private double[] inputs;
+    private long unique;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("--calculator.planner.enabled=" + planner);
+        service = context.getBean(CalculatorService.class);
+        inputs = ThreadLocalRandom.current().doubles(size, 0.5, 1.5).toArray();
+        service.calculate(new InputRequest(inputs.clone()), operation);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResultResponse hit() {
+        return service.calculate(new InputRequest(inputs.clone()), operation);
+    }
+
+    @Benchmark
+    public ResultResponse miss() {
+        double[] request = inputs.clone();
+        request[0] = unique++;
+        return service.calculate(new InputRequest(request), operation);
+    }
+}
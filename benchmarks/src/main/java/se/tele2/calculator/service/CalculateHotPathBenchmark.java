@@ -0,0 +1,109 @@
+package se.tele2.calculator.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.repository.DataStore;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the request hot path of {@link CalculatorService#calculate} on a result that is already stored, with an
+ * in-memory data store so only the canonicalization and lookup key handling is measured.
+ * Run with {@code -prof gc}: {@code gc.alloc.rate.norm} is the number of bytes allocated per request, which should stay
+ * at the canonical text plus a constant number of small objects, independent of where the inputs came from.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculateHotPathBenchmark {
+
+    @Param({"2", "100", "10000"})
+    private int size;
+
+    @Param({"ADDITION", "SUBTRACTION"})
+    private Operation operation;
+
+    private CalculatorService service;
+    private InputRequest request;
+    private double[] inputs;
+
+    @Setup
+    public void setUp() {
+        inputs = ThreadLocalRandom.current().doubles(size, -1000, 1000).toArray();
+        request = new InputRequest(inputs);
+        service = new CalculatorService(new InMemoryDataStore(), new Calculator(new ParallelReducer(Integer.MAX_VALUE, 1)), new SingleFlight<>(),
+                new CalculatorMetrics(new SimpleMeterRegistry()), CalculationBudgets.unlimited(),
+                new CalculationPlanner(false, 0, 0));
+        service.calculate(request, operation);
+    }
+
+    @Benchmark
+    public ResultResponse calculateStoredResult() {
+        return service.calculate(request, operation);
+    }
+
+    @Benchmark
+    public String canonicalInputs() {
+        return CanonicalInputs.of(inputs);
+    }
+
+    static class InMemoryDataStore implements DataStore {
+
+        private final Map<ResultKey, Result> results = new ConcurrentHashMap<>();
+
+        @Override
+        public Result save(Result result) {
+            results.put(result.key(), result);
+            return result;
+        }
+
+        @Override
+        public List<Result> saveAll(List<Result> results) {
+            results.forEach(this::save);
+            return results;
+        }
+
+        @Override
+        public Optional<Result> findByNumbersAndOperation(String numbers, Operation operation) {
+            return Optional.ofNullable(results.get(new ResultKey(numbers, operation)));
+        }
+
+        @Override
+        public List<Result> findAllByKeys(Collection<ResultKey> keys) {
+            return keys.stream()
+                    .map(results::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+
+        @Override
+        public Optional<Result> findById(int id) {
+            return Optional.empty();
+        }
+    }
+}
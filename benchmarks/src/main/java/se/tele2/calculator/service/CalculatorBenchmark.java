@@ -0,0 +1,57 @@
+package se.tele2.calculator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultKey;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the two steps of a calculation that do not touch the data store: building the lookup key of the inputs,
+ * which sorts them for addition and multiplication and writes their canonical text, and the calculation itself.
+ * The key is built from a copy of unsorted inputs, like a request brings them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class CalculatorBenchmark {
+
+    @Param({"2", "100", "10000"})
+    private int size;
+
+    @Param({"ADDITION", "SUBTRACTION", "MULTIPLICATION", "DIVISION"})
+    private Operation operation;
+
+    private Calculator calculator;
+    private double[] inputs;
+
+    @Setup
+    public void setUp() {
+        calculator = new Calculator(new ParallelReducer(Integer.MAX_VALUE, 1));
+        inputs = ThreadLocalRandom.current().doubles(size, 0.5, 1.5).toArray();
+    }
+
+    @Benchmark
+    public ResultKey key() {
+        return calculator.key(inputs.clone(), operation);
+    }
+
+    @Benchmark
+    public double calculate() {
+        return calculator.calculate(inputs, operation);
+    }
+}
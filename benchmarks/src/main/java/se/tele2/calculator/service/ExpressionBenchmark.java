@@ -0,0 +1,50 @@
+package se.tele2.calculator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the plan cache saves a repeated expression ({@code compile}) against what is left for every request
+ * ({@code bindAndEvaluate}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ExpressionBenchmark {
+
+    @Param({"(a + b) * c / d", "(a + b) * (c - d) / (a * b + c * d) - -(a / 2 + b / 3 + c / 4 + d / 5)"})
+    private String expression;
+
+    private final Map<String, Double> variables = Map.of("a", 1.0, "b", 2.0, "c", 3.0, "d", 4.0);
+    private CompiledExpression compiled;
+
+    @Setup
+    public void setUp() {
+        compiled = ExpressionParser.compile(expression);
+    }
+
+    @Benchmark
+    public CompiledExpression compile() {
+        return ExpressionParser.compile(expression);
+    }
+
+    @Benchmark
+    public double bindAndEvaluate() {
+        return compiled.evaluate(compiled.bind(variables));
+    }
+}
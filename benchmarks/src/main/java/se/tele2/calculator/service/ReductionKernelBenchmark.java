@@ -0,0 +1,87 @@
+package se.tele2.calculator.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import se.tele2.calculator.model.Operation;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reduction kernels with the {@code DoubleStream.reduce} calculation they replaced.
+ * The kernels are run leaf by leaf, like {@link ParallelReducer} does, on at most {@link ParallelReducer#LEAF_SIZE}
+ * inputs at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ReductionKernelBenchmark {
+
+    @Param({"16", "1024", "4096", "1048576"})
+    private int size;
+
+    @Param({"ADDITION", "MULTIPLICATION"})
+    private Operation operation;
+
+    private double[] inputs;
+
+    @Setup
+    public void setUp() {
+        inputs = ThreadLocalRandom.current().doubles(size, 0.999, 1.001).toArray();
+    }
+
+    @Benchmark
+    public double stream() {
+        return operation == Operation.ADDITION
+                ? Arrays.stream(inputs).reduce(Double::sum).orElseThrow()
+                : Arrays.stream(inputs).reduce((e1, e2) -> e1 * e2).orElseThrow();
+    }
+
+    @Benchmark
+    public double scalarLeftFold() {
+        return ScalarReductionKernel.leftFold(inputs, 0, size, operation);
+    }
+
+    @Benchmark
+    public double scalarLanes() {
+        double result = ScalarReductionKernel.fold(inputs, 0, Math.min(size, ParallelReducer.LEAF_SIZE), operation);
+        for (int from = ParallelReducer.LEAF_SIZE; from < size; from += ParallelReducer.LEAF_SIZE) {
+            int to = Math.min(size, from + ParallelReducer.LEAF_SIZE);
+            result = ReductionKernel.combine(result, ScalarReductionKernel.fold(inputs, from, to, operation), operation);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public double vectorLanes() {
+        double result = VectorReductionKernel.fold(inputs, 0, Math.min(size, ParallelReducer.LEAF_SIZE), operation);
+        for (int from = ParallelReducer.LEAF_SIZE; from < size; from += ParallelReducer.LEAF_SIZE) {
+            int to = Math.min(size, from + ParallelReducer.LEAF_SIZE);
+            result = ReductionKernel.combine(result, VectorReductionKernel.fold(inputs, from, to, operation), operation);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public boolean scalarZeroScan() {
+        return ScalarReductionKernel.containsZero(inputs, 1, size);
+    }
+
+    @Benchmark
+    public boolean vectorZeroScan() {
+        return VectorReductionKernel.containsZero(inputs, 1, size);
+    }
+}
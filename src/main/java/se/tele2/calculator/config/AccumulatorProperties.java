@@ -0,0 +1,21 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param snapshotInterval how often changed accumulators are written to the database, appends made since the last
+ *                         snapshot are lost when the service stops without shutting down
+ * @param idleTimeout      time after its last use an accumulator is written and dropped from memory, it is loaded
+ *                         from the database when it is used again
+ */
+@ConfigurationProperties(prefix = "calculator.accumulator")
+@ConstructorBinding
+public record AccumulatorProperties(
+        @DefaultValue("1s") Duration snapshotInterval,
+        @DefaultValue("10m") Duration idleTimeout
+) {
+}
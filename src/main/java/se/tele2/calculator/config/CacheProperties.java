@@ -0,0 +1,12 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "calculator.cache")
+@ConstructorBinding
+public record CacheProperties(
+        @DefaultValue("10000") long maximumSize
+) {
+}
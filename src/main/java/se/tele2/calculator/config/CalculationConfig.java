@@ -0,0 +1,82 @@
+package se.tele2.calculator.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import se.tele2.calculator.controller.AdmissionInterceptor;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+import se.tele2.calculator.service.CalculationBudgets;
+import se.tele2.calculator.service.CalculationPlanner;
+import se.tele2.calculator.service.ConcurrencyLimiter;
+import se.tele2.calculator.service.ParallelReducer;
+import se.tele2.calculator.service.SingleFlight;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+@Configuration
+@EnableConfigurationProperties({ParallelProperties.class, AccumulatorProperties.class, ExpressionProperties.class,
+        LimiterProperties.class, PlannerProperties.class})
+public class CalculationConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ParallelReducer parallelReducer(ParallelProperties properties) {
+        int parallelism = properties.parallelism() > 0 ? properties.parallelism() : Runtime.getRuntime().availableProcessors();
+        return new ParallelReducer(properties.threshold(), parallelism);
+    }
+
+    @Bean
+    public CalculationBudgets calculationBudgets(LimiterProperties properties) {
+        if (!properties.enabled()) {
+            return CalculationBudgets.unlimited();
+        }
+        return new CalculationBudgets(
+                limiter("Requests", properties.requestLimit(), properties),
+                limiter("Calculations", properties.computationLimit(), properties));
+    }
+
+    @Bean
+    public CalculationPlanner calculationPlanner(PlannerProperties properties) {
+        return new CalculationPlanner(properties.enabled(), properties.maxInputs(), properties.costRatio());
+    }
+
+    /**
+     * A bean rather than a scanned configuration, so web slices without the budgets do not need them.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = SERVLET)
+    public WebMvcConfigurer admission(CalculationBudgets budgets) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new AdmissionInterceptor(budgets.requests()))
+                        .addPathPatterns("/addition", "/subtraction", "/multiplication", "/division", "/batch",
+                                "/existingresult/**", "/expression", "/columnar/**", "/accumulators/**");
+                registry.addInterceptor(new AdmissionInterceptor(budgets.requests(), true))
+                        .addPathPatterns("/stream/**");
+            }
+        };
+    }
+
+    @Bean
+    public SingleFlight<ResultKey, Result> calculations() {
+        return new SingleFlight<>();
+    }
+
+    @Bean
+    public MeterBinder calculationsMetrics(SingleFlight<ResultKey, Result> calculations) {
+        return registry -> FunctionCounter.builder("calculator.coalesced", calculations, SingleFlight::followers)
+                .description("Calculations that waited for the same calculation in progress instead of running it")
+                .register(registry);
+    }
+
+    private static ConcurrencyLimiter limiter(String name, long initialLimit, LimiterProperties properties) {
+        return new ConcurrencyLimiter(name, initialLimit, properties.minimumLimit(), properties.maximumLimit(),
+                properties.tolerance(), properties.backoff());
+    }
+}
@@ -0,0 +1,27 @@
+package se.tele2.calculator.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+/**
+ * Reads and writes application/cbor with the spring.jackson settings JSON is read with. The CBOR converter Spring MVC
+ * adds by default has a mapper of its own, which for one turns a null input into 0.0 instead of rejecting it.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = SERVLET)
+public class CborConfig {
+
+    /**
+     * Takes the place of the default CBOR converter, after the JSON one.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
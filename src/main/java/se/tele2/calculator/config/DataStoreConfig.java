@@ -0,0 +1,67 @@
+package se.tele2.calculator.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.tele2.calculator.repository.CachingDataStore;
+import se.tele2.calculator.repository.DataBaseDataStore;
+import se.tele2.calculator.repository.DataStore;
+import se.tele2.calculator.repository.MappedDataStore;
+import se.tele2.calculator.repository.ResultAccessTracker;
+import se.tele2.calculator.repository.ResultRetention;
+import se.tele2.calculator.repository.WriteBehindDataStore;
+
+import java.nio.file.Path;
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties({CacheProperties.class, WriteBehindProperties.class, MappedStoreProperties.class,
+        ExportProperties.class, ImportProperties.class, RetentionProperties.class})
+public class DataStoreConfig {
+
+    @Bean
+    @Primary
+    public CachingDataStore cachingDataStore(DataBaseDataStore dataBaseDataStore,
+                                             ObjectProvider<WriteBehindDataStore> writeBehindDataStore,
+                                             ObjectProvider<MappedDataStore> mappedDataStore,
+                                             ResultAccessTracker resultAccessTracker,
+                                             CacheProperties properties) {
+        DataStore store = mappedDataStore.getIfAvailable();
+        if (store == null) {
+            store = writeBehindDataStore.getIfAvailable();
+        }
+        return new CachingDataStore(store != null ? store : dataBaseDataStore, properties.maximumSize(),
+                resultAccessTracker);
+    }
+
+    @Bean
+    public ResultAccessTracker resultAccessTracker(RetentionProperties properties) {
+        return properties.enabled() ? new ResultAccessTracker() : ResultAccessTracker.disabled();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "calculator.retention", name = "enabled", havingValue = "true")
+    public ResultRetention resultRetention(JdbcTemplate jdbcTemplate, CachingDataStore cachingDataStore,
+                                           ResultAccessTracker resultAccessTracker, RetentionProperties properties) {
+        return new ResultRetention(jdbcTemplate, cachingDataStore, resultAccessTracker, properties, Clock.systemUTC());
+    }
+
+    @Bean(destroyMethod = "close")
+    @Profile("mmap")
+    public MappedDataStore mappedDataStore(MappedStoreProperties properties) {
+        return new MappedDataStore(Path.of(properties.file()), (int) properties.segmentSize().toBytes(),
+                properties.initialCapacity());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "calculator.write-behind", name = "enabled", havingValue = "true")
+    public WriteBehindDataStore writeBehindDataStore(DataBaseDataStore dataBaseDataStore, WriteBehindProperties properties) {
+        return new WriteBehindDataStore(dataBaseDataStore, properties.batchSize(), properties.flushInterval(),
+                properties.queueCapacity(), properties.offerTimeout());
+    }
+}
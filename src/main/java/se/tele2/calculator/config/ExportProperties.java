@@ -0,0 +1,21 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param pageSize  results read by one keyset query of an export
+ * @param fetchSize rows the JDBC driver fetches per round trip while reading a page
+ * @param timeout   longest an export may take, other requests keep the default async timeout of Spring MVC
+ */
+@ConfigurationProperties(prefix = "calculator.export")
+@ConstructorBinding
+public record ExportProperties(
+        @DefaultValue("1000") int pageSize,
+        @DefaultValue("1000") int fetchSize,
+        @DefaultValue("1h") Duration timeout
+) {
+}
@@ -0,0 +1,15 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param planCacheSize compiled expressions kept by expression text
+ */
+@ConfigurationProperties(prefix = "calculator.expression")
+@ConstructorBinding
+public record ExpressionProperties(
+        @DefaultValue("10000") long planCacheSize
+) {
+}
@@ -0,0 +1,17 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param batchSize      rows sent to the database in one JDBC batch while importing
+ * @param commitInterval rows imported per transaction
+ */
+@ConfigurationProperties(prefix = "calculator.import")
+@ConstructorBinding
+public record ImportProperties(
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("50000") int commitInterval
+) {
+}
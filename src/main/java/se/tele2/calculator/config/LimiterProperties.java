@@ -0,0 +1,29 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits are counted in inputs of the requests in progress.
+ *
+ * @param enabled          reject requests that do not fit the limits
+ * @param requestLimit     limit to start with for calculation requests, estimated from the length of their body
+ * @param computationLimit limit to start with for calculating and saving new results
+ * @param minimumLimit     smallest limit either budget shrinks to, also what a limit grows by per round of requests
+ * @param maximumLimit     largest limit either budget grows to
+ * @param tolerance        average latency relative to the fastest seen from which a limit shrinks
+ * @param backoff          factor a limit is multiplied by when it shrinks
+ */
+@ConfigurationProperties(prefix = "calculator.limiter")
+@ConstructorBinding
+public record LimiterProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2000000") long requestLimit,
+        @DefaultValue("200000") long computationLimit,
+        @DefaultValue("1000") long minimumLimit,
+        @DefaultValue("100000000") long maximumLimit,
+        @DefaultValue("2.0") double tolerance,
+        @DefaultValue("0.9") double backoff
+) {
+}
@@ -0,0 +1,22 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Used by the {@code mmap} profile.
+ *
+ * @param file            file the results are appended to, created when missing
+ * @param segmentSize     size of each mapped region of the file, one result must fit in a segment
+ * @param initialCapacity results the index has room for before it has to grow
+ */
+@ConfigurationProperties(prefix = "calculator.mmap")
+@ConstructorBinding
+public record MappedStoreProperties(
+        @DefaultValue("./calculator-results.dat") String file,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("65536") int initialCapacity
+) {
+}
@@ -0,0 +1,17 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param threshold   number of inputs from which addition and multiplication are reduced on the parallel pool
+ * @param parallelism number of threads of the parallel pool, 0 means one per available processor
+ */
+@ConfigurationProperties(prefix = "calculator.parallel")
+@ConstructorBinding
+public record ParallelProperties(
+        @DefaultValue("100000") int threshold,
+        @DefaultValue("0") int parallelism
+) {
+}
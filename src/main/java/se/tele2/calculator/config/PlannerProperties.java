@@ -0,0 +1,21 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param enabled   calculate cheap calculations without looking them up or storing them, they can then not be fetched
+ *                  from /existingresult
+ * @param maxInputs most inputs a calculation may have to be calculated without the store
+ * @param costRatio how many times the time of a lookup a calculation may be expected to take to be calculated without
+ *                  the store
+ */
+@ConfigurationProperties(prefix = "calculator.planner")
+@ConstructorBinding
+public record PlannerProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("8") int maxInputs,
+        @DefaultValue("1.0") double costRatio
+) {
+}
@@ -0,0 +1,64 @@
+package se.tele2.calculator.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.AllArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Lets the reactive stack read and write application/cbor like Spring MVC does by default when Jackson's CBOR module is
+ * on the classpath. CBOR carries doubles as their 8 IEEE-754 bytes, so large inputs are neither formatted nor parsed as
+ * text. JSON stays the default when a client does not ask for CBOR.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = REACTIVE)
+@AllArgsConstructor
+public class ReactiveCborConfig implements WebFluxConfigurer {
+
+    private ObjectMapper objectMapper;
+    private Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+    /**
+     * Custom codecs are asked before the default ones, so JSON is registered again ahead of CBOR to stay the format
+     * picked for clients that accept any type. CBOR is read with the spring.jackson settings, like JSON.
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+        configurer.customCodecs().register(new Jackson2CborDecoder(objectMapperBuilder.factory(new CBORFactory()).build(),
+                MediaType.APPLICATION_CBOR));
+        configurer.customCodecs().register(new ValueCborEncoder());
+    }
+
+    /**
+     * The CBOR encoder of Spring 5.3 only encodes single values and refuses the publisher every response body is
+     * written from, so each value is encoded on its own.
+     */
+    private static final class ValueCborEncoder extends Jackson2CborEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            return Flux.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+        }
+    }
+}
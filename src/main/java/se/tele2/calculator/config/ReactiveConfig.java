@@ -0,0 +1,90 @@
+package se.tele2.calculator.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import se.tele2.calculator.repository.R2dbcDataStore;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Reactive stack, selected with the {@code reactive} profile.
+ * The R2DBC connection pool is kept out of the context on purpose: a {@link ConnectionFactory} bean switches off the
+ * JDBC data source, which JPA still uses to create the schema and the migrations use to update it.
+ * <p>
+ * Keys and calculations run on their own scheduler, off the event loops. It is made from a plain {@link Executor} on
+ * purpose: the schedulers of Reactor, also the ones made from an {@link ExecutorService}, interrupt their thread when a
+ * request is cancelled, and r2dbc-h2 runs the embedded database on the thread that subscribes, where an interrupt
+ * closes the database file.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveConfig implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+    private ExecutorService calculationExecutor;
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(R2dbcProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(properties.getUrl())
+                .username(properties.getUsername())
+                .password(properties.getPassword())
+                .build();
+        R2dbcProperties.Pool pool = properties.getPool();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public Scheduler calculationScheduler() {
+        AtomicInteger threads = new AtomicInteger();
+        calculationExecutor = Executors.newFixedThreadPool(10 * Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "calculation-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Executor executor = calculationExecutor::execute;
+        return Schedulers.fromExecutor(executor);
+    }
+
+    @Bean
+    public R2dbcDataStore r2dbcDataStore(DatabaseClient databaseClient) {
+        return new R2dbcDataStore(databaseClient);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+        if (calculationExecutor != null) {
+            calculationExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import se.tele2.calculator.model.Operation;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * @param enabled    track when results are read and delete results past the limits of their operation
+ * @param interval   time between runs, and so how far the stored last access of a result may lag behind
+ * @param chunkSize  results updated or deleted per statement
+ * @param pause      least time between two chunks, a chunk is also followed by as long as it took, so calculations
+ *                   get the database in between
+ * @param operations limits per operation, results of operations without limits are kept
+ */
+@ConfigurationProperties(prefix = "calculator.retention")
+@ConstructorBinding
+public record RetentionProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1m") Duration interval,
+        @DefaultValue("1000") int chunkSize,
+        @DefaultValue("100ms") Duration pause,
+        Map<Operation, Limits> operations
+) {
+
+    public RetentionProperties {
+        operations = operations == null ? Map.of() : Map.copyOf(operations);
+    }
+
+    /**
+     * @param maxRows most results kept, the least recently used beyond are deleted, unlimited when not set
+     * @param ttl     time after its last access a result is deleted, never when not set
+     */
+    public record Limits(Long maxRows, Duration ttl) {
+    }
+}
@@ -0,0 +1,25 @@
+package se.tele2.calculator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param enabled       respond before new results are written to the database, they are written by a background writer
+ * @param batchSize     number of queued results that makes the writer flush right away
+ * @param flushInterval longest time a result waits in the queue
+ * @param queueCapacity results that may wait in the queue, callers write themselves when it stays full
+ * @param offerTimeout  how long a caller waits for room in a full queue before it writes itself
+ */
+@ConfigurationProperties(prefix = "calculator.write-behind")
+@ConstructorBinding
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("200ms") Duration flushInterval,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("50ms") Duration offerTimeout
+) {
+}
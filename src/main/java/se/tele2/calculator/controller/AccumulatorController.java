@@ -0,0 +1,48 @@
+package se.tele2.calculator.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import se.tele2.calculator.model.AccumulatorRequest;
+import se.tele2.calculator.model.AccumulatorResponse;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.service.AccumulatorService;
+
+import javax.validation.Valid;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@RequestMapping("/accumulators")
+@AllArgsConstructor
+@Validated
+public class AccumulatorController {
+
+    private AccumulatorService service;
+
+    @PostMapping
+    public ResponseEntity<AccumulatorResponse> create(@Valid @RequestBody AccumulatorRequest request,
+                                                      UriComponentsBuilder uriBuilder) {
+        AccumulatorResponse response = service.create(request.operation());
+        return ResponseEntity.created(uriBuilder.path("/accumulators/{id}").build(response.id())).body(response);
+    }
+
+    @PostMapping("/{id}/inputs")
+    public ResponseEntity<AccumulatorResponse> append(@PathVariable int id, @Valid @RequestBody InputRequest request) {
+        return ResponseEntity.ok(service.append(id, request.inputs()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AccumulatorResponse> get(@PathVariable int id) {
+        return ResponseEntity.ok(service.get(id));
+    }
+}
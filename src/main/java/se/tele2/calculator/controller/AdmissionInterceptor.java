@@ -0,0 +1,63 @@
+package se.tele2.calculator.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import se.tele2.calculator.service.ConcurrencyLimiter;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Takes room for a calculation request before its body is read, so a request that does not fit is rejected without
+ * reading and parsing its inputs. The inputs are estimated from the length of the body, at the size of a double in
+ * CBOR; JSON takes more bytes per input, which only makes a JSON request count for more than it has.
+ * <p>
+ * A body sent without a length, chunked, may hold any number of inputs, so it counts as the whole limit and only runs
+ * when nothing else is in progress, and so does every request to a streaming endpoint, which reads its body while it
+ * calculates. Requests without a body, like the lookups of /existingresult, count as one input.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    static final int BYTES_PER_INPUT = 9;
+    private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final ConcurrencyLimiter limiter;
+    private final boolean streaming;
+
+    public AdmissionInterceptor(ConcurrencyLimiter limiter) {
+        this(limiter, false);
+    }
+
+    /**
+     * @param streaming whether every request counts as the whole limit, whatever the length of its body
+     */
+    public AdmissionInterceptor(ConcurrencyLimiter limiter, boolean streaming) {
+        this.limiter = limiter;
+        this.streaming = streaming;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(PERMIT, limiter.acquire(inputs(request)));
+        return true;
+    }
+
+    private long inputs(HttpServletRequest request) {
+        if (streaming) {
+            return limiter.limit();
+        }
+        long length = request.getContentLengthLong();
+        if (length >= 0) {
+            return length / BYTES_PER_INPUT;
+        }
+        return request.getHeader(HttpHeaders.TRANSFER_ENCODING) == null ? 1 : limiter.limit();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof ConcurrencyLimiter.Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.close();
+        }
+    }
+}
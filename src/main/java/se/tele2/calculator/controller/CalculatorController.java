@@ -1,27 +1,40 @@
 package se.tele2.calculator.controller;
 
 import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
 import se.tele2.calculator.model.InputRequest;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.Calculator;
 import se.tele2.calculator.service.CalculatorService;
+import se.tele2.calculator.service.ResultETags;
 
 import javax.validation.Valid;
 import java.util.List;
 
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
 @RestController
+@ConditionalOnWebApplication(type = SERVLET)
 @AllArgsConstructor
 @Validated
 public class CalculatorController {
 
     private CalculatorService service;
+    private ResultETags etags;
 
     @PostMapping("/addition")
     public ResponseEntity<ResultResponse> addition(@Valid @RequestBody InputRequest request) {
@@ -43,13 +56,36 @@ public class CalculatorController {
         return ResponseEntity.ok(service.calculate(request,Operation.DIVISION));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> batch(@Valid @RequestBody BatchRequest request) {
+        return ResponseEntity.ok(service.calculateBatch(request));
+    }
+
+    /**
+     * Answers 304 Not Modified without looking the result up when the client already has it.
+     */
     @GetMapping("/existingresult/{id}")
-    public ResponseEntity<ResultResponse> getExistingResult(@PathVariable int id) {
-        return ResponseEntity.ok(service.getExistingResultById(id));
+    public ResponseEntity<ResultResponse> getExistingResult(@PathVariable int id,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                            WebRequest webRequest) {
+        MediaType format = ImmutableResponses.format(accept);
+        String etag = ImmutableResponses.etag(etags.of(id), format);
+        if (webRequest.checkNotModified(etag)) {
+            return ImmutableResponses.notModified(etag);
+        }
+        return ImmutableResponses.ok(etag, format, service.getExistingResultById(id));
     }
 
     @GetMapping("/existingresult/{numbers}/{operation}")
-    public ResponseEntity<ResultResponse> getExistingResultByNumbersAndOperation(@PathVariable List<Double> numbers, @PathVariable Operation operation) {
-        return ResponseEntity.ok(service.getExistingResultByInputsAndOperation(numbers, operation));
+    public ResponseEntity<ResultResponse> getExistingResultByNumbersAndOperation(@PathVariable List<Double> numbers, @PathVariable Operation operation,
+                                                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                                 WebRequest webRequest) {
+        Calculator.checkArithmetic(operation);
+        MediaType format = ImmutableResponses.format(accept);
+        String etag = ImmutableResponses.etag(etags.of(numbers, operation), format);
+        if (webRequest.checkNotModified(etag)) {
+            return ImmutableResponses.notModified(etag);
+        }
+        return ImmutableResponses.ok(etag, format, service.getExistingResultByInputsAndOperation(numbers, operation));
     }
 }
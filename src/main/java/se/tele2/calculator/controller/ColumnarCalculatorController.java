@@ -0,0 +1,35 @@
+package se.tele2.calculator.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import se.tele2.calculator.model.ColumnarRequest;
+import se.tele2.calculator.model.ColumnarResponse;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.service.ColumnarCalculatorService;
+
+import javax.validation.Valid;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@AllArgsConstructor
+@Validated
+public class ColumnarCalculatorController {
+
+    private ColumnarCalculatorService service;
+
+    @PostMapping("/columnar/{operation}")
+    public ResponseEntity<ColumnarResponse> calculate(@PathVariable Operation operation,
+                                                      @RequestParam(defaultValue = "true") boolean persist,
+                                                      @Valid @RequestBody ColumnarRequest request) {
+        return ResponseEntity.ok(service.calculate(request, operation, persist));
+    }
+}
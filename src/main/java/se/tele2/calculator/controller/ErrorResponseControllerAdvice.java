@@ -1,12 +1,15 @@
 package se.tele2.calculator.controller;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import se.tele2.calculator.exception.EmptyInputsException;
 import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.InvalidInputsException;
 import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.exception.OverloadedException;
 
 @ControllerAdvice
 public class ErrorResponseControllerAdvice {
@@ -28,4 +31,18 @@ public class ErrorResponseControllerAdvice {
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.FORBIDDEN, e.getMessage());
         return ResponseEntity.status(errorResponse.status()).body(errorResponse);
     }
+
+    @ExceptionHandler(InvalidInputsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidInputsException(InvalidInputsException e){
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        return ResponseEntity.status(errorResponse.status()).body(errorResponse);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloadedException(OverloadedException e){
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        return ResponseEntity.status(errorResponse.status())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
 }
@@ -0,0 +1,62 @@
+package se.tele2.calculator.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import se.tele2.calculator.config.ExportProperties;
+import se.tele2.calculator.service.ResultExportService;
+
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+import static se.tele2.calculator.service.StreamingCalculatorService.TEXT_CSV;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@AllArgsConstructor
+public class ExportController {
+
+    private ResultExportService service;
+    private ExportProperties properties;
+
+    /**
+     * Streams the stored results with an id above {@code after} in id order, as CSV when the client asks for text/csv
+     * and as NDJSON otherwise. The export is written on an async thread with a timeout of its own, an export of a
+     * large table takes far longer than any other request is allowed to.
+     */
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public WebAsyncTask<Void> export(@RequestParam(defaultValue = "0") int after,
+                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                     HttpServletResponse response) {
+        MediaType format = format(accept);
+        response.setContentType(format.toString());
+        return new WebAsyncTask<>(properties.timeout().toMillis(), () -> {
+            service.export(response.getOutputStream(), format, after);
+            return null;
+        });
+    }
+
+    private static MediaType format(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_NDJSON;
+        }
+        List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (TEXT_CSV.equalsTypeAndSubtype(mediaType)) {
+                return TEXT_CSV;
+            }
+            if (MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(mediaType)) {
+                return MediaType.APPLICATION_NDJSON;
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+}
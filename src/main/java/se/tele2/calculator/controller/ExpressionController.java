@@ -0,0 +1,30 @@
+package se.tele2.calculator.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import se.tele2.calculator.model.ExpressionRequest;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.ExpressionService;
+
+import javax.validation.Valid;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@AllArgsConstructor
+@Validated
+public class ExpressionController {
+
+    private ExpressionService service;
+
+    @PostMapping("/expression")
+    public ResponseEntity<ResultResponse> evaluate(@Valid @RequestBody ExpressionRequest request) {
+        return ResponseEntity.ok(service.evaluate(request));
+    }
+}
@@ -0,0 +1,77 @@
+package se.tele2.calculator.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Responses of stored results, which browsers and shared caches may keep for a year without revalidating. A result is
+ * sent as JSON or CBOR depending on the Accept header, so the responses vary by it and each format gets an entity tag
+ * of its own; otherwise a cache could answer a JSON client with the CBOR body it kept, or validate it with a 304.
+ */
+final class ImmutableResponses {
+
+    static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().getHeaderValue()
+            + ", immutable";
+
+    private ImmutableResponses() {
+    }
+
+    /**
+     * The format a result is written in for the Accept header, CBOR when it is preferred to JSON, JSON otherwise.
+     */
+    static MediaType format(String accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(acceptable);
+        for (MediaType mediaType : acceptable) {
+            if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(mediaType)) {
+                return MediaType.APPLICATION_CBOR;
+            }
+            if (MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * The entity tag of the result in the given format, the tag of JSON is the one of the result.
+     */
+    static String etag(String etag, MediaType format) {
+        if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(format)) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + '-' + format.getSubtype() + '"';
+    }
+
+    static <T> ResponseEntity<T> ok(String etag, MediaType format, T body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .contentType(format)
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+}
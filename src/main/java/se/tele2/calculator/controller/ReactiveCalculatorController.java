@@ -0,0 +1,89 @@
+package se.tele2.calculator.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.Calculator;
+import se.tele2.calculator.service.ReactiveCalculatorService;
+import se.tele2.calculator.service.ResultETags;
+
+import javax.validation.Valid;
+import java.util.List;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Same routes as {@link CalculatorController}, served when the service runs on the reactive stack.
+ */
+@RestController
+@ConditionalOnWebApplication(type = REACTIVE)
+@AllArgsConstructor
+@Validated
+public class ReactiveCalculatorController {
+
+    private ReactiveCalculatorService service;
+    private ResultETags etags;
+
+    @PostMapping("/addition")
+    public Mono<ResponseEntity<ResultResponse>> addition(@Valid @RequestBody InputRequest request) {
+        return service.calculate(request, Operation.ADDITION).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/subtraction")
+    public Mono<ResponseEntity<ResultResponse>> subtraction(@Valid @RequestBody InputRequest request) {
+        return service.calculate(request, Operation.SUBTRACTION).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/multiplication")
+    public Mono<ResponseEntity<ResultResponse>> multiplication(@Valid @RequestBody InputRequest request) {
+        return service.calculate(request, Operation.MULTIPLICATION).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/division")
+    public Mono<ResponseEntity<ResultResponse>> division(@Valid @RequestBody InputRequest request) {
+        return service.calculate(request, Operation.DIVISION).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<BatchResponse>> batch(@Valid @RequestBody BatchRequest request) {
+        return service.calculateBatch(request).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/existingresult/{id}")
+    public Mono<ResponseEntity<ResultResponse>> getExistingResult(@PathVariable int id, ServerWebExchange exchange) {
+        MediaType format = ImmutableResponses.format(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+        String etag = ImmutableResponses.etag(etags.of(id), format);
+        if (exchange.checkNotModified(etag)) {
+            return Mono.just(ImmutableResponses.notModified(etag));
+        }
+        return service.getExistingResultById(id).map(result -> ImmutableResponses.ok(etag, format, result));
+    }
+
+    @GetMapping("/existingresult/{numbers}/{operation}")
+    public Mono<ResponseEntity<ResultResponse>> getExistingResultByNumbersAndOperation(@PathVariable List<Double> numbers, @PathVariable Operation operation,
+                                                                                       ServerWebExchange exchange) {
+        Calculator.checkArithmetic(operation);
+        MediaType format = ImmutableResponses.format(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT));
+        String etag = ImmutableResponses.etag(etags.of(numbers, operation), format);
+        if (exchange.checkNotModified(etag)) {
+            return Mono.just(ImmutableResponses.notModified(etag));
+        }
+        return service.getExistingResultByInputsAndOperation(numbers, operation)
+                .map(result -> ImmutableResponses.ok(etag, format, result));
+    }
+}
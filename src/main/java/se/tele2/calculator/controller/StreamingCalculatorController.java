@@ -0,0 +1,34 @@
+package se.tele2.calculator.controller;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.StreamingCalculatorService;
+
+import java.io.InputStream;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
+
+@RestController
+@ConditionalOnWebApplication(type = SERVLET)
+@AllArgsConstructor
+public class StreamingCalculatorController {
+
+    private StreamingCalculatorService service;
+
+    @PostMapping(value = "/stream/{operation}",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public ResponseEntity<ResultResponse> calculate(@PathVariable Operation operation,
+                                                    @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                    InputStream body) {
+        return ResponseEntity.ok(service.calculate(body, contentType, operation));
+    }
+}
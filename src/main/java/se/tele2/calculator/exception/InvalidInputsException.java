@@ -0,0 +1,7 @@
+package se.tele2.calculator.exception;
+
+public class InvalidInputsException extends RuntimeException {
+    public InvalidInputsException(String message) {
+        super(message);
+    }
+}
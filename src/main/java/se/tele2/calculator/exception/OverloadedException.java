@@ -0,0 +1,14 @@
+package se.tele2.calculator.exception;
+
+import lombok.Getter;
+
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public OverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
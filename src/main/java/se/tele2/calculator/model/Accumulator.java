@@ -0,0 +1,41 @@
+package se.tele2.calculator.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.lang.NonNull;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+
+/**
+ * Last snapshot of a running calculation. The current value lives in memory, see
+ * {@link se.tele2.calculator.service.AccumulatorService}.
+ */
+@Entity
+@Builder
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class Accumulator {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "accumulator_seq")
+    @SequenceGenerator(name = "accumulator_seq", sequenceName = "accumulator_seq", allocationSize = 1)
+    private Integer id;
+
+    @NonNull
+    @Enumerated(EnumType.STRING)
+    private Operation operation;
+
+    private double result;
+
+    private long inputs;
+}
@@ -0,0 +1,6 @@
+package se.tele2.calculator.model;
+
+import javax.validation.constraints.NotNull;
+
+public record AccumulatorRequest(@NotNull Operation operation) {
+}
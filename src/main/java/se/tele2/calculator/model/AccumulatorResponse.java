@@ -0,0 +1,8 @@
+package se.tele2.calculator.model;
+
+/**
+ * @param result null until the first inputs are appended
+ * @param inputs number of inputs appended so far
+ */
+public record AccumulatorResponse(int id, Operation operation, Double result, long inputs) {
+}
@@ -0,0 +1,7 @@
+package se.tele2.calculator.model;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+public record BatchItem(@NotNull Operation operation, @NotNull List<Double> inputs) {
+}
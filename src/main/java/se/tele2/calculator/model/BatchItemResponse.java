@@ -0,0 +1,16 @@
+package se.tele2.calculator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import se.tele2.calculator.exception.ErrorResponse;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResponse(Double result, ErrorResponse error) {
+
+    public static BatchItemResponse of(double result) {
+        return new BatchItemResponse(result, null);
+    }
+
+    public static BatchItemResponse of(ErrorResponse error) {
+        return new BatchItemResponse(null, error);
+    }
+}
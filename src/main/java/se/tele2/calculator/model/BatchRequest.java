@@ -0,0 +1,8 @@
+package se.tele2.calculator.model;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+public record BatchRequest(@NotNull List<@Valid @NotNull BatchItem> items) {
+}
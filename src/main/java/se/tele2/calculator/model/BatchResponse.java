@@ -0,0 +1,6 @@
+package se.tele2.calculator.model;
+
+import java.util.List;
+
+public record BatchResponse(List<BatchItemResponse> results) {
+}
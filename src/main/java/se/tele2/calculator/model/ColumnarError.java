@@ -0,0 +1,6 @@
+package se.tele2.calculator.model;
+
+import se.tele2.calculator.exception.ErrorResponse;
+
+public record ColumnarError(int row, ErrorResponse error) {
+}
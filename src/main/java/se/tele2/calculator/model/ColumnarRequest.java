@@ -0,0 +1,33 @@
+package se.tele2.calculator.model;
+
+import javax.validation.constraints.NotNull;
+import java.util.Arrays;
+
+/**
+ * Many rows of inputs in one flat array, like an Arrow list column: row {@code i} holds the values from
+ * {@code offsets[i]} up to {@code offsets[i + 1]}. So {@code offsets} has one more element than there are rows,
+ * starts at 0 and ends at the number of values.
+ */
+public record ColumnarRequest(@NotNull double[] values, @NotNull int[] offsets) {
+
+    public int rows() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ColumnarRequest other
+                && Arrays.equals(values, other.values)
+                && Arrays.equals(offsets, other.offsets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(values) + Arrays.hashCode(offsets);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarRequest[values=" + values.length + ", rows=" + rows() + "]";
+    }
+}
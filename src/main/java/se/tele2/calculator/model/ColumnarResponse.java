@@ -0,0 +1,10 @@
+package se.tele2.calculator.model;
+
+import java.util.List;
+
+/**
+ * @param results result per row, NaN for rows that could not be calculated
+ * @param errors  why rows could not be calculated, by row
+ */
+public record ColumnarResponse(double[] results, List<ColumnarError> errors) {
+}
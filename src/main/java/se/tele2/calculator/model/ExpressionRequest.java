@@ -0,0 +1,12 @@
+package se.tele2.calculator.model;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+import java.util.Map;
+
+/**
+ * @param expression numbers and variables combined with {@code + - * /}, unary minus and parentheses, e.g. (a+b)*c/d
+ * @param variables  values of the variables in the expression
+ */
+public record ExpressionRequest(@NotBlank @Size(max = 10_000) String expression, Map<String, Double> variables) {
+}
@@ -1,7 +1,39 @@
 package se.tele2.calculator.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import javax.validation.constraints.NotNull;
+import java.util.Arrays;
 import java.util.List;
 
-public record InputRequest(@NotNull List<Double> inputs) {
+/**
+ * The inputs are bound straight into a primitive array, so large requests are neither boxed nor copied on their way
+ * to the calculation.
+ */
+public record InputRequest(@NotNull double[] inputs) {
+
+    @JsonCreator
+    public InputRequest(@JsonProperty("inputs") double[] inputs) {
+        this.inputs = inputs;
+    }
+
+    public InputRequest(List<Double> inputs) {
+        this(inputs.stream().mapToDouble(Double::doubleValue).toArray());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof InputRequest other && Arrays.equals(inputs, other.inputs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(inputs);
+    }
+
+    @Override
+    public String toString() {
+        return "InputRequest[inputs=" + Arrays.toString(inputs) + "]";
+    }
 }
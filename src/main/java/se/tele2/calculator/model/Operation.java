@@ -1,5 +1,9 @@
 package se.tele2.calculator.model;
 
 public enum Operation {
-    ADDITION, SUBTRACTION, MULTIPLICATION, DIVISION
+    ADDITION, SUBTRACTION, MULTIPLICATION, DIVISION,
+    /**
+     * Results of arithmetic expressions, only evaluated by the expression endpoint.
+     */
+    EXPRESSION
 }
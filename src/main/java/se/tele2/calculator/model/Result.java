@@ -7,14 +7,24 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.lang.NonNull;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.Transient;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_result_digest", columnList = "digest_high,digest_low,operation", unique = true),
+        @Index(name = "ix_result_access", columnList = "operation,last_access")
+})
 @Builder
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -22,7 +32,8 @@ import javax.persistence.Id;
 public class Result {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "result_seq")
+    @SequenceGenerator(name = "result_seq", sequenceName = "result_seq", allocationSize = 50)
     private Integer id;
 
     @NonNull
@@ -31,5 +42,54 @@ public class Result {
 
     private double result;
 
+    /**
+     * Canonical text of the inputs, decoded from {@link #inputs} when first asked for.
+     */
+    @Transient
     private String numbers;
+
+    /**
+     * The inputs as stored, see {@link ResultInputs}.
+     */
+    @Getter(AccessLevel.NONE)
+    @Column(length = Integer.MAX_VALUE)
+    private byte[] inputs;
+
+    @Column(name = "digest_high")
+    private Long digestHigh;
+
+    @Column(name = "digest_low")
+    private Long digestLow;
+
+    /**
+     * Epoch milliseconds of when the result was stored or last read, written in batches by {@code ResultRetention}
+     * so it lags behind reads by up to its interval.
+     */
+    @Column(name = "last_access")
+    private Long lastAccess;
+
+    public String getNumbers() {
+        if (numbers == null && inputs != null) {
+            numbers = ResultInputs.decode(inputs);
+        }
+        return numbers;
+    }
+
+    public ResultKey key() {
+        return new ResultKey(getNumbers(), operation);
+    }
+
+    @PrePersist
+    public void computeDigest() {
+        if (lastAccess == null) {
+            lastAccess = System.currentTimeMillis();
+        }
+        if (numbers == null) {
+            return;
+        }
+        inputs = ResultInputs.encode(numbers);
+        ResultDigest digest = ResultDigest.of(numbers, operation);
+        digestHigh = digest.high();
+        digestLow = digest.low();
+    }
 }
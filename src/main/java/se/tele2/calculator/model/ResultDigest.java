@@ -0,0 +1,29 @@
+package se.tele2.calculator.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 128-bit digest of the canonical inputs and the operation, used as the indexed lookup key for results.
+ * It is not used for anything security related, MD5 is only picked because it is fast and always available.
+ */
+public record ResultDigest(long high, long low) {
+
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    });
+
+    public static ResultDigest of(String numbers, Operation operation) {
+        MessageDigest md5 = MD5.get();
+        md5.update(operation.name().getBytes(StandardCharsets.US_ASCII));
+        md5.update((byte) ':');
+        ByteBuffer hash = ByteBuffer.wrap(md5.digest(numbers.getBytes(StandardCharsets.UTF_8)));
+        return new ResultDigest(hash.getLong(), hash.getLong());
+    }
+}
@@ -0,0 +1,220 @@
+package se.tele2.calculator.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Stored form of the canonical inputs of a result, what the inputs column of the result table holds. The first byte
+ * tells how the rest is written:
+ * <ul>
+ *     <li>{@code XOR}: the number of inputs as a variable length int, then the inputs compressed the way Gorilla
+ *     compresses time series values. Every input is XORed with the one before it, the first with 0. An input equal to
+ *     the one before takes one bit, any other only the bits between the leading and trailing zeros of the XOR, in the
+ *     window of the input before when they fit in it. Whole numbers and sorted inputs share most of their sign,
+ *     exponent and high mantissa bits with their neighbour, so they take far less than their 8 bytes.</li>
+ *     <li>{@code TEXT}: the canonical text as UTF-8, for inputs that are not a list of doubles as
+ *     {@link Double#toString} writes them, like the key of an expression, and for inputs the XOR format does not save
+ *     a quarter of the text on. For a few inputs it saves a byte or two, and H2 compresses repeated digits and commas
+ *     better than XORed bits when it compacts the database file.</li>
+ * </ul>
+ * Decoding gives back exactly the text that was encoded, so digests and keys are the same as before.
+ */
+public final class ResultInputs {
+
+    private static final byte TEXT = 0;
+    private static final byte XOR = 1;
+    /**
+     * Longest text {@link Double#toString} writes, -2.2250738585072014E-308, and its comma.
+     */
+    private static final int MAX_NUMBER_LENGTH = 25;
+
+    private ResultInputs() {
+    }
+
+    public static byte[] encode(String numbers) {
+        byte[] text = numbers.getBytes(StandardCharsets.UTF_8);
+        byte[] xor = encodeXor(numbers);
+        if (xor != null && xor.length * 4 <= text.length * 3) {
+            return xor;
+        }
+        byte[] encoded = new byte[text.length + 1];
+        encoded[0] = TEXT;
+        System.arraycopy(text, 0, encoded, 1, text.length);
+        return encoded;
+    }
+
+    public static String decode(byte[] inputs) {
+        return switch (inputs[0]) {
+            case TEXT -> new String(inputs, 1, inputs.length - 1, StandardCharsets.UTF_8);
+            case XOR -> decodeXor(inputs);
+            default -> throw new IllegalArgumentException("Unknown format of stored inputs " + inputs[0]);
+        };
+    }
+
+    /**
+     * @return the inputs in the XOR format, or null when the text would not be written back exactly
+     */
+    private static byte[] encodeXor(String numbers) {
+        BitWriter writer = new BitWriter(numbers.length() / 2 + 8);
+        writer.write(XOR, 8);
+        int count = 0;
+        for (int i = 0; i <= numbers.length(); i++) {
+            if (i == numbers.length() || numbers.charAt(i) == ',') {
+                count++;
+            }
+        }
+        for (int rest = count; ; rest >>>= 7) {
+            if (rest < 0x80) {
+                writer.write(rest, 8);
+                break;
+            }
+            writer.write(rest & 0x7F | 0x80, 8);
+        }
+
+        long previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = numbers.indexOf(',', start);
+            String number = numbers.substring(start, end < 0 ? numbers.length() : end);
+            start = end + 1;
+            double value;
+            try {
+                value = Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (!Double.toString(value).equals(number)) {
+                return null;
+            }
+
+            long bits = Double.doubleToRawLongBits(value);
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                writer.write(0, 1);
+                continue;
+            }
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                writer.write(0b10, 2);
+                writer.write(xor >>> previousTrailing, Long.SIZE - previousLeading - previousTrailing);
+            } else {
+                int meaningful = Long.SIZE - leading - trailing;
+                writer.write(0b11, 2);
+                writer.write(leading, 5);
+                writer.write(meaningful - 1, 6);
+                writer.write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    private static String decodeXor(byte[] inputs) {
+        BitReader reader = new BitReader(inputs, 1);
+        int count = 0;
+        for (int shift = 0; ; shift += 7) {
+            int group = (int) reader.read(8);
+            count |= (group & 0x7F) << shift;
+            if (group < 0x80) {
+                break;
+            }
+        }
+
+        StringBuilder numbers = new StringBuilder((int) Math.min((long) count * MAX_NUMBER_LENGTH, Integer.MAX_VALUE - 8));
+        long previous = 0;
+        int leading = 0;
+        int meaningful = 0;
+        for (int i = 0; i < count; i++) {
+            if (reader.read(1) == 1) {
+                if (reader.read(1) == 1) {
+                    leading = (int) reader.read(5);
+                    meaningful = (int) reader.read(6) + 1;
+                }
+                previous ^= reader.read(meaningful) << (Long.SIZE - leading - meaningful);
+            }
+            if (i > 0) {
+                numbers.append(',');
+            }
+            numbers.append(Double.longBitsToDouble(previous));
+        }
+        return numbers.toString();
+    }
+
+    private static final class BitWriter {
+
+        private byte[] bytes;
+        private int length;
+        private int current;
+        private int bits;
+
+        BitWriter(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        /**
+         * Writes the lowest {@code count} bits of the value, highest first.
+         */
+        void write(long value, int count) {
+            while (count > 0) {
+                int take = Math.min(8 - bits, count);
+                current = current << take | (int) (value >>> (count - take)) & ((1 << take) - 1);
+                bits += take;
+                count -= take;
+                if (bits == 8) {
+                    append((byte) current);
+                    current = 0;
+                    bits = 0;
+                }
+            }
+        }
+
+        byte[] toByteArray() {
+            if (bits > 0) {
+                append((byte) (current << (8 - bits)));
+                current = 0;
+                bits = 0;
+            }
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void append(byte value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = value;
+        }
+    }
+
+    private static final class BitReader {
+
+        private final byte[] bytes;
+        private int position;
+        private int current;
+        private int bits;
+
+        BitReader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        long read(int count) {
+            long value = 0;
+            while (count > 0) {
+                if (bits == 0) {
+                    current = bytes[position++] & 0xFF;
+                    bits = 8;
+                }
+                int take = Math.min(bits, count);
+                value = value << take | (current >>> (bits - take)) & ((1 << take) - 1);
+                bits -= take;
+                count -= take;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package se.tele2.calculator.model;
+
+import lombok.NonNull;
+
+public record ResultKey(
+        @NonNull String numbers,
+        @NonNull Operation operation
+) {
+
+    public ResultDigest digest() {
+        return ResultDigest.of(numbers, operation);
+    }
+}
@@ -0,0 +1,20 @@
+package se.tele2.calculator.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import se.tele2.calculator.model.Accumulator;
+
+@Repository
+public interface AccumulatorRepository extends JpaRepository<Accumulator, Integer> {
+
+    /**
+     * Writes a snapshot without loading the accumulator first.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Accumulator a SET a.result = :result, a.inputs = :inputs WHERE a.id = :id")
+    int updateSnapshot(int id, double result, long inputs);
+}
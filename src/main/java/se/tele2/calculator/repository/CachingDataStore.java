@@ -0,0 +1,129 @@
+package se.tele2.calculator.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps recently used results in memory in front of another {@link DataStore}.
+ * Results are never updated once stored, so entries are evicted for size and only invalidated when retention deletes
+ * their result. Caffeine's W-TinyLFU policy keeps frequently requested inputs even when a burst of one-off inputs
+ * passes through. Every result handed out, from the cache or not, is reported to the {@link ResultAccessTracker}.
+ */
+public class CachingDataStore implements DataStore, MeterBinder {
+
+    private final DataStore delegate;
+    private final Cache<ResultKey, Result> cache;
+    private final ResultAccessTracker accessTracker;
+
+    public CachingDataStore(DataStore delegate, long maximumSize) {
+        this(delegate, maximumSize, ResultAccessTracker.disabled());
+    }
+
+    public CachingDataStore(DataStore delegate, long maximumSize, ResultAccessTracker accessTracker) {
+        this.delegate = delegate;
+        this.accessTracker = accessTracker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Result save(Result result) {
+        Result saved = delegate.save(result);
+        cache.put(saved.key(), saved);
+        accessTracker.accessed(saved);
+        return saved;
+    }
+
+    @Override
+    public List<Result> saveAll(List<Result> results) {
+        List<Result> saved = delegate.saveAll(results);
+        saved.forEach(result -> {
+            cache.put(result.key(), result);
+            accessTracker.accessed(result);
+        });
+        return saved;
+    }
+
+    @Override
+    public Optional<Result> findByNumbersAndOperation(String numbers, Operation operation) {
+        ResultKey key = new ResultKey(numbers, operation);
+        Result cached = cache.getIfPresent(key);
+        if (cached != null) {
+            accessTracker.accessed(cached);
+            return Optional.of(cached);
+        }
+        Optional<Result> result = delegate.findByNumbersAndOperation(numbers, operation);
+        result.ifPresent(value -> {
+            cache.put(key, value);
+            accessTracker.accessed(value);
+        });
+        return result;
+    }
+
+    @Override
+    public List<Result> findAllByKeys(Collection<ResultKey> keys) {
+        List<Result> results = new ArrayList<>(keys.size());
+        List<ResultKey> misses = new ArrayList<>();
+        for (ResultKey key : keys) {
+            Result cached = cache.getIfPresent(key);
+            if (cached != null) {
+                accessTracker.accessed(cached);
+                results.add(cached);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Result result : delegate.findAllByKeys(misses)) {
+                cache.put(result.key(), result);
+                accessTracker.accessed(result);
+                results.add(result);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<Result> findById(int id) {
+        Optional<Result> result = delegate.findById(id);
+        result.ifPresent(accessTracker::accessed);
+        return result;
+    }
+
+    /**
+     * Drops the results of the keys, for results deleted from the store underneath.
+     */
+    public void invalidateAll(Collection<ResultKey> keys) {
+        cache.invalidateAll(keys);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Publishes the size, hits, misses and evictions of the cache as {@code cache.*} meters named {@code results}.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "results");
+    }
+
+    Cache<ResultKey, Result> cache() {
+        return cache;
+    }
+}
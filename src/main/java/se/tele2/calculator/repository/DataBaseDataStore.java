@@ -1,21 +1,52 @@
 package se.tele2.calculator.repository;
 
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Stores results through JPA. The digest index is unique, so a result that another request, another endpoint or
+ * another node stored in the meantime fails to insert; the stored result is returned instead, it is the same.
+ */
 @Component
 @AllArgsConstructor
+@Slf4j
 public class DataBaseDataStore implements DataStore {
 
     private ResultRepository repository;
 
     @Override
     public Result save(Result result) {
-        return repository.save(result);
+        try {
+            return repository.save(result);
+        } catch (DataIntegrityViolationException e) {
+            return repository.findByNumbersAndOperation(result.getNumbers(), result.getOperation())
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Inserts the results in one batch. When one of them is stored already the batch is rolled back and the results
+     * are saved one by one, returning the stored result for those that are.
+     */
+    @Override
+    public List<Result> saveAll(List<Result> results) {
+        try {
+            return repository.saveAll(results);
+        } catch (DataIntegrityViolationException e) {
+            log.info("{} results were partly stored already, saving them one by one", results.size());
+            return results.stream()
+                    .map(this::save)
+                    .toList();
+        }
     }
 
     @Override
@@ -23,6 +54,11 @@ public class DataBaseDataStore implements DataStore {
         return repository.findByNumbersAndOperation(numbers, operation);
     }
 
+    @Override
+    public List<Result> findAllByKeys(Collection<ResultKey> keys) {
+        return repository.findAllByKeys(keys);
+    }
+
     @Override
     public Optional<Result> findById(int id) {
         return repository.findById(id);
@@ -2,11 +2,16 @@ package se.tele2.calculator.repository;
 
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface DataStore {
     Result save(Result result);
+    List<Result> saveAll(List<Result> results);
     Optional<Result> findByNumbersAndOperation(String numbers, Operation operation);
+    List<Result> findAllByKeys(Collection<ResultKey> keys);
     Optional<Result> findById(int id);
 }
@@ -0,0 +1,16 @@
+package se.tele2.calculator.repository;
+
+import java.time.Duration;
+
+/**
+ * @param rows     rows read from the file
+ * @param imported rows inserted
+ * @param skipped  rows whose inputs and operation were stored already
+ */
+public record ImportReport(long rows, long imported, long skipped, Duration elapsed) {
+
+    public long rowsPerSecond() {
+        long millis = Math.max(elapsed.toMillis(), 1);
+        return rows * 1000 / millis;
+    }
+}
@@ -0,0 +1,362 @@
+package se.tele2.calculator.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultKey;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps results in an append-only file that is memory-mapped in segments, without an entity manager or a database.
+ * Every record is a fixed 40 byte header followed by the canonical numbers, padded to 8 bytes:
+ * <pre>
+ *  0 int    record size, 0 where the file ends and -1 where the rest of the segment is unused
+ *  4 int    id
+ *  8 long   digest high
+ * 16 long   digest low
+ * 24 double result
+ * 32 int    operation code, see {@link #code}
+ * 36 int    length of the numbers in bytes
+ * 40 ...    numbers, UTF-8
+ * </pre>
+ * The record size is written last, so a record that was not completely written ends the file when it is replayed. A
+ * record with an operation code this version does not know stops the replay instead of being read as another
+ * operation.
+ * Two indexes live off-heap in direct buffers: an open addressing hash table from the {@link ResultDigest} to the
+ * offset of the record and a table from id to offset. Neither is stored, both are rebuilt by replaying the file when
+ * the store is opened. Records are written to the page cache only, they survive the process but not the machine
+ * going down before the operating system wrote them, unless the store was closed.
+ */
+@Slf4j
+public class MappedDataStore implements DataStore, Closeable {
+
+    static final int HEADER_SIZE = 40;
+    private static final int SIZE = 0;
+    private static final int ID = 4;
+    private static final int DIGEST_HIGH = 8;
+    private static final int DIGEST_LOW = 16;
+    private static final int RESULT = 24;
+    private static final int OPERATION = 32;
+    private static final int NUMBERS_LENGTH = 36;
+    private static final int END_OF_SEGMENT = -1;
+
+    private static final int SLOT_SIZE = 24;
+    private static final int MAX_SLOTS = 1 << 26;
+
+    private final FileChannel channel;
+    private final int segmentSize;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer index;
+    private int indexMask;
+    private int indexed;
+    private ByteBuffer offsetsById;
+    private int lastId;
+    private long end;
+
+    public MappedDataStore(Path file, int segmentSize, int initialCapacity) {
+        if (segmentSize < HEADER_SIZE || segmentSize % 8 != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of 8 of at least " + HEADER_SIZE + " bytes");
+        }
+        this.segmentSize = segmentSize;
+        int slots = Integer.highestOneBit(Math.max(2 * initialCapacity - 1, 16)) << 1;
+        this.index = ByteBuffer.allocateDirect(Math.min(slots, MAX_SLOTS) * SLOT_SIZE);
+        this.indexMask = index.capacity() / SLOT_SIZE - 1;
+        this.offsetsById = ByteBuffer.allocateDirect(Math.max(initialCapacity, 16) * Long.BYTES);
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + file, e);
+        }
+        log.info("Opened {} with {} results", file, lastId);
+    }
+
+    @Override
+    public Result save(Result result) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            return append(result);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Result> saveAll(List<Result> results) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            List<Result> saved = new ArrayList<>(results.size());
+            for (Result result : results) {
+                saved.add(append(result));
+            }
+            return saved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Result> findByNumbersAndOperation(String numbers, Operation operation) {
+        ResultDigest digest = ResultDigest.of(numbers, operation);
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return find(digest, numbers);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Result> findAllByKeys(Collection<ResultKey> keys) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<Result> found = new ArrayList<>(keys.size());
+            for (ResultKey key : keys) {
+                find(ResultDigest.of(key.numbers(), key.operation()), key.numbers()).ifPresent(found::add);
+            }
+            return found;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Result> findById(int id) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            if (id < 1 || id > lastId) {
+                return Optional.empty();
+            }
+            return Optional.of(read(offsetsById.getLong((id - 1) * Long.BYTES)));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the mapped segments to the file and closes it.
+     */
+    @Override
+    public void close() {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            segments.forEach(MappedByteBuffer::force);
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Result append(Result result) {
+        ResultDigest digest = ResultDigest.of(result.getNumbers(), result.getOperation());
+        long existing = offsetOf(digest);
+        if (existing >= 0) {
+            Result stored = read(existing);
+            if (!stored.getNumbers().equals(result.getNumbers())) {
+                throw new IllegalStateException("Digest of " + result.getOperation() + " collides with result " + stored.getId());
+            }
+            return stored;
+        }
+        byte[] numbers = result.getNumbers().getBytes(StandardCharsets.UTF_8);
+        int size = align(HEADER_SIZE + numbers.length);
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Numbers of " + numbers.length + " bytes do not fit in a segment of " + segmentSize + " bytes");
+        }
+        int position = (int) (end % segmentSize);
+        if (position + size > segmentSize) {
+            segment(end).putInt(position + SIZE, END_OF_SEGMENT);
+            end += segmentSize - position;
+            position = 0;
+        }
+        int id = lastId + 1;
+        MappedByteBuffer segment = segment(end);
+        segment.putInt(position + ID, id);
+        segment.putLong(position + DIGEST_HIGH, digest.high());
+        segment.putLong(position + DIGEST_LOW, digest.low());
+        segment.putDouble(position + RESULT, result.getResult());
+        segment.putInt(position + OPERATION, code(result.getOperation()));
+        segment.putInt(position + NUMBERS_LENGTH, numbers.length);
+        segment.put(position + HEADER_SIZE, numbers);
+        segment.putInt(position + SIZE, size);
+        indexRecord(id, digest.high(), digest.low(), end);
+        end += size;
+        return Result.builder()
+                .id(id)
+                .operation(result.getOperation())
+                .result(result.getResult())
+                .numbers(result.getNumbers())
+                .digestHigh(digest.high())
+                .digestLow(digest.low())
+                .build();
+    }
+
+    private void replay() throws IOException {
+        long fileSize = channel.size();
+        while (end < fileSize) {
+            MappedByteBuffer segment = segment(end);
+            int position = (int) (end % segmentSize);
+            int size = segment.getInt(position + SIZE);
+            if (size == 0) {
+                return;
+            }
+            if (size == END_OF_SEGMENT) {
+                end += segmentSize - position;
+                continue;
+            }
+            operation(segment.getInt(position + OPERATION), end);
+            indexRecord(segment.getInt(position + ID), segment.getLong(position + DIGEST_HIGH),
+                    segment.getLong(position + DIGEST_LOW), end);
+            end += size;
+        }
+    }
+
+    private Optional<Result> find(ResultDigest digest, String numbers) {
+        long offset = offsetOf(digest);
+        if (offset < 0) {
+            return Optional.empty();
+        }
+        Result result = read(offset);
+        return result.getNumbers().equals(numbers) ? Optional.of(result) : Optional.empty();
+    }
+
+    private Result read(long offset) {
+        MappedByteBuffer segment = segments.get((int) (offset / segmentSize));
+        int position = (int) (offset % segmentSize);
+        byte[] numbers = new byte[segment.getInt(position + NUMBERS_LENGTH)];
+        segment.get(position + HEADER_SIZE, numbers);
+        return Result.builder()
+                .id(segment.getInt(position + ID))
+                .operation(operation(segment.getInt(position + OPERATION), offset))
+                .result(segment.getDouble(position + RESULT))
+                .numbers(new String(numbers, StandardCharsets.UTF_8))
+                .digestHigh(segment.getLong(position + DIGEST_HIGH))
+                .digestLow(segment.getLong(position + DIGEST_LOW))
+                .build();
+    }
+
+    private long offsetOf(ResultDigest digest) {
+        int slot = (int) digest.high() & indexMask;
+        while (true) {
+            int base = slot * SLOT_SIZE;
+            long stored = index.getLong(base + 16);
+            if (stored == 0) {
+                return -1;
+            }
+            if (index.getLong(base) == digest.high() && index.getLong(base + 8) == digest.low()) {
+                return stored - 1;
+            }
+            slot = (slot + 1) & indexMask;
+        }
+    }
+
+    private void indexRecord(int id, long high, long low, long offset) {
+        if (2 * (indexed + 1) > indexMask + 1) {
+            resizeIndex();
+        }
+        putSlot(index, indexMask, high, low, offset + 1);
+        indexed++;
+        if (id * Long.BYTES > offsetsById.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(offsetsById.capacity() * 2, id * Long.BYTES));
+            grown.put(offsetsById.clear());
+            offsetsById = grown;
+        }
+        offsetsById.putLong((id - 1) * Long.BYTES, offset);
+        lastId = Math.max(lastId, id);
+    }
+
+    private void resizeIndex() {
+        int slots = (indexMask + 1) * 2;
+        if (slots > MAX_SLOTS) {
+            throw new IllegalStateException("Index is full at " + indexed + " results");
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        int grownMask = slots - 1;
+        for (int base = 0; base < index.capacity(); base += SLOT_SIZE) {
+            long stored = index.getLong(base + 16);
+            if (stored != 0) {
+                putSlot(grown, grownMask, index.getLong(base), index.getLong(base + 8), stored);
+            }
+        }
+        index = grown;
+        indexMask = grownMask;
+    }
+
+    private static void putSlot(ByteBuffer table, int mask, long high, long low, long storedOffset) {
+        int slot = (int) high & mask;
+        while (table.getLong(slot * SLOT_SIZE + 16) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        int base = slot * SLOT_SIZE;
+        table.putLong(base, high);
+        table.putLong(base + 8, low);
+        table.putLong(base + 16, storedOffset);
+    }
+
+    private MappedByteBuffer segment(long offset) {
+        int number = (int) (offset / segmentSize);
+        while (segments.size() <= number) {
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * segmentSize, segmentSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map segment " + segments.size(), e);
+            }
+        }
+        return segments.get(number);
+    }
+
+    /**
+     * Code of the operation in the records. Spelled out rather than the ordinal, so adding or reordering operations
+     * does not change what the records already written mean; the codes are the ordinals the first files were written
+     * with. A new operation takes a new code.
+     */
+    static int code(Operation operation) {
+        return switch (operation) {
+            case ADDITION -> 0;
+            case SUBTRACTION -> 1;
+            case MULTIPLICATION -> 2;
+            case DIVISION -> 3;
+            case EXPRESSION -> 4;
+        };
+    }
+
+    private static Operation operation(int code, long offset) {
+        return switch (code) {
+            case 0 -> Operation.ADDITION;
+            case 1 -> Operation.SUBTRACTION;
+            case 2 -> Operation.MULTIPLICATION;
+            case 3 -> Operation.DIVISION;
+            case 4 -> Operation.EXPRESSION;
+            default -> throw new IllegalStateException("Record at offset " + offset + " has unknown operation code " + code);
+        };
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -0,0 +1,121 @@
+package se.tele2.calculator.repository;
+
+import io.r2dbc.spi.Row;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultInputs;
+import se.tele2.calculator.model.ResultKey;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking store of the results, on the same table and digest index as {@link ResultRepository}.
+ * Ids are taken from the same sequence, one value per result, so they never clash with the blocks Hibernate reserves.
+ */
+@AllArgsConstructor
+public class R2dbcDataStore implements ReactiveDataStore {
+
+    private static final String COLUMNS = "id, operation, result, inputs, digest_high, digest_low, last_access";
+
+    private DatabaseClient client;
+
+    @Override
+    public Mono<Result> save(Result result) {
+        ResultDigest digest = ResultDigest.of(result.getNumbers(), result.getOperation());
+        long lastAccess = System.currentTimeMillis();
+        return client.sql("SELECT NEXT VALUE FOR result_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> client.sql("INSERT INTO result (" + COLUMNS + ") "
+                                + "VALUES (:id, :operation, :result, :inputs, :digestHigh, :digestLow, :lastAccess)")
+                        .bind("id", id.intValue())
+                        .bind("operation", result.getOperation().name())
+                        .bind("result", result.getResult())
+                        .bind("inputs", ResultInputs.encode(result.getNumbers()))
+                        .bind("digestHigh", digest.high())
+                        .bind("digestLow", digest.low())
+                        .bind("lastAccess", lastAccess)
+                        .then()
+                        .thenReturn(Result.builder()
+                                .id(id.intValue())
+                                .operation(result.getOperation())
+                                .result(result.getResult())
+                                .numbers(result.getNumbers())
+                                .digestHigh(digest.high())
+                                .digestLow(digest.low())
+                                .lastAccess(lastAccess)
+                                .build()))
+                .onErrorResume(DataIntegrityViolationException.class,
+                        e -> findByNumbersAndOperation(result.getNumbers(), result.getOperation()));
+    }
+
+    @Override
+    public Flux<Result> saveAll(List<Result> results) {
+        return Flux.fromIterable(results).concatMap(this::save);
+    }
+
+    /**
+     * Looks the result up through the indexed digest and only compares the full numbers to rule out a digest collision.
+     */
+    @Override
+    public Mono<Result> findByNumbersAndOperation(String numbers, Operation operation) {
+        ResultDigest digest = ResultDigest.of(numbers, operation);
+        return client.sql("SELECT " + COLUMNS + " FROM result "
+                        + "WHERE digest_high = :digestHigh AND digest_low = :digestLow AND operation = :operation")
+                .bind("digestHigh", digest.high())
+                .bind("digestLow", digest.low())
+                .bind("operation", operation.name())
+                .map(this::toResult)
+                .one()
+                .filter(result -> numbers.equals(result.getNumbers()));
+    }
+
+    /**
+     * Resolves many keys with one query on the indexed high half of their digests, the rest of the key is matched in memory.
+     */
+    @Override
+    public Flux<Result> findAllByKeys(Collection<ResultKey> keys) {
+        if (keys.isEmpty()) {
+            return Flux.empty();
+        }
+        Set<ResultKey> wanted = Set.copyOf(keys);
+        List<Long> digestHighs = wanted.stream()
+                .map(key -> key.digest().high())
+                .distinct()
+                .collect(Collectors.toList());
+        return client.sql("SELECT " + COLUMNS + " FROM result WHERE digest_high IN (:digestHighs)")
+                .bind("digestHighs", digestHighs)
+                .map(this::toResult)
+                .all()
+                .filter(result -> wanted.contains(result.key()));
+    }
+
+    @Override
+    public Mono<Result> findById(int id) {
+        return client.sql("SELECT " + COLUMNS + " FROM result WHERE id = :id")
+                .bind("id", id)
+                .map(this::toResult)
+                .one();
+    }
+
+    private Result toResult(Row row) {
+        return Result.builder()
+                .id(row.get("id", Integer.class))
+                .operation(Operation.valueOf(row.get("operation", String.class)))
+                .result(row.get("result", Double.class))
+                .inputs(row.get("inputs", byte[].class))
+                .digestHigh(row.get("digest_high", Long.class))
+                .digestLow(row.get("digest_low", Long.class))
+                .lastAccess(row.get("last_access", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package se.tele2.calculator.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReactiveDataStore {
+    Mono<Result> save(Result result);
+    Flux<Result> saveAll(List<Result> results);
+    Mono<Result> findByNumbersAndOperation(String numbers, Operation operation);
+    Flux<Result> findAllByKeys(Collection<ResultKey> keys);
+    Mono<Result> findById(int id);
+}
@@ -0,0 +1,44 @@
+package se.tele2.calculator.repository;
+
+import se.tele2.calculator.model.Result;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Remembers which stored results were read since it was last drained, so their last access can be written for all
+ * of them at once instead of with an update on every read. A read only adds the id to a set, however often the result
+ * is read. An access that races with a drain may be lost, the next access of the result is recorded again.
+ */
+public class ResultAccessTracker {
+
+    private static final ResultAccessTracker DISABLED = new ResultAccessTracker() {
+        @Override
+        public void accessed(Result result) {
+        }
+    };
+
+    private final AtomicReference<Set<Integer>> accessed = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+
+    /**
+     * A tracker that records nothing, for when no retention runs to drain it.
+     */
+    public static ResultAccessTracker disabled() {
+        return DISABLED;
+    }
+
+    public void accessed(Result result) {
+        Integer id = result.getId();
+        if (id != null) {
+            accessed.get().add(id);
+        }
+    }
+
+    /**
+     * @return the ids of the results accessed since the last drain
+     */
+    public Set<Integer> drain() {
+        return accessed.getAndSet(ConcurrentHashMap.newKeySet());
+    }
+}
@@ -0,0 +1,93 @@
+package se.tele2.calculator.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultDigest;
+
+import java.util.List;
+
+/**
+ * Brings databases created before the digest lookup up to date.
+ * Hibernate adds the digest columns and the unique index, but it neither widens the old VARCHAR(255) numbers column
+ * nor fills in the digest of rows stored before. Rows whose inputs were stored more than once keep an empty digest,
+ * so they can still be fetched by id while the first copy serves the lookups. Rows without numbers are left alone,
+ * they could never be found by their inputs anyway.
+ * <p>
+ * Runs while the context starts, once Hibernate updated the schema and before the web server takes requests, and
+ * before {@link ResultInputsMigration}, while the inputs are still in the numbers column; once
+ * {@link ResultNumbersDropMigration} dropped that column there is nothing left for it to do.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@AllArgsConstructor
+@Slf4j
+public class ResultDigestMigration implements InitializingBean {
+
+    private static final int BATCH_SIZE = 500;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        run();
+    }
+
+    public void run() {
+        List<Integer> lengths = jdbcTemplate.queryForList(
+                "SELECT CHARACTER_MAXIMUM_LENGTH FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'RESULT' AND COLUMN_NAME = 'NUMBERS'",
+                Integer.class);
+        if (lengths.isEmpty()) {
+            return;
+        }
+        widenNumbersColumn(lengths.get(0));
+        backfillDigests();
+    }
+
+    private void widenNumbersColumn(Integer length) {
+        if (length != null && length < Integer.MAX_VALUE) {
+            log.info("Widening result.numbers from VARCHAR({})", length);
+            jdbcTemplate.execute("ALTER TABLE result ALTER COLUMN numbers VARCHAR(" + Integer.MAX_VALUE + ")");
+        }
+    }
+
+    private void backfillDigests() {
+        int lastId = 0;
+        int updated = 0;
+        int duplicates = 0;
+        List<Row> rows;
+        do {
+            rows = jdbcTemplate.query(
+                    "SELECT id, numbers, operation FROM result WHERE digest_high IS NULL AND id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Row(rs.getInt("id"), rs.getString("numbers"), Operation.valueOf(rs.getString("operation"))),
+                    lastId, BATCH_SIZE);
+            for (Row row : rows) {
+                lastId = row.id();
+                if (row.numbers() == null) {
+                    continue;
+                }
+                ResultDigest digest = ResultDigest.of(row.numbers(), row.operation());
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM result WHERE digest_high = ? AND digest_low = ? AND operation = ?",
+                        Integer.class, digest.high(), digest.low(), row.operation().name());
+                if (existing != null && existing > 0) {
+                    duplicates++;
+                    continue;
+                }
+                jdbcTemplate.update("UPDATE result SET digest_high = ?, digest_low = ? WHERE id = ?",
+                        digest.high(), digest.low(), row.id());
+                updated++;
+            }
+        } while (rows.size() == BATCH_SIZE);
+        if (updated > 0 || duplicates > 0) {
+            log.info("Backfilled the digest of {} results, left {} duplicate results without digest", updated, duplicates);
+        }
+    }
+
+    private record Row(int id, String numbers, Operation operation) {
+    }
+}
@@ -0,0 +1,65 @@
+package se.tele2.calculator.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.config.ExportProperties;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole result table in id order, one page at a time. Every page is a keyset query on the primary key,
+ * {@code id > last id of the previous page}, so reading a page costs the same however far into the table it is, and
+ * no page is held in memory: each row is handed on while the result set is read. The database only keeps the page
+ * being read open, so an export does not hold back writes for its whole duration.
+ */
+@Component
+public class ResultExporter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+
+    public ResultExporter(JdbcTemplate jdbcTemplate, ExportProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(properties.fetchSize());
+        this.pageSize = properties.pageSize();
+    }
+
+    /**
+     * Hands every result with an id above {@code afterId} to the consumer, in id order.
+     *
+     * @return the number of results exported
+     */
+    public long export(int afterId, Consumer<Result> consumer) {
+        Page page = new Page(afterId);
+        do {
+            page.rows = 0;
+            jdbcTemplate.query("SELECT id, operation, result, inputs FROM result WHERE id > ? ORDER BY id LIMIT ?",
+                    rs -> {
+                        page.lastId = rs.getInt(1);
+                        page.rows++;
+                        consumer.accept(Result.builder()
+                                .id(page.lastId)
+                                .operation(Operation.valueOf(rs.getString(2)))
+                                .result(rs.getDouble(3))
+                                .inputs(rs.getBytes(4))
+                                .build());
+                    },
+                    page.lastId, pageSize);
+            page.total += page.rows;
+        } while (page.rows == pageSize);
+        return page.total;
+    }
+
+    private static final class Page {
+
+        private int lastId;
+        private int rows;
+        private long total;
+
+        Page(int lastId) {
+            this.lastId = lastId;
+        }
+    }
+}
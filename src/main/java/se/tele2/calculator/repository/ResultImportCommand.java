@@ -0,0 +1,31 @@
+package se.tele2.calculator.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Imports the files given with {@code --import=<file>} once the service has started, after the migrations ran.
+ * An import that fails stops the service.
+ */
+@Component
+@AllArgsConstructor
+public class ResultImportCommand {
+
+    private ResultImporter importer;
+    private ApplicationArguments arguments;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void importFiles() {
+        List<String> files = arguments.getOptionValues("import");
+        if (files == null) {
+            return;
+        }
+        files.forEach(file -> importer.importFile(Path.of(file)));
+    }
+}
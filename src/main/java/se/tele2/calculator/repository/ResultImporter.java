@@ -0,0 +1,467 @@
+package se.tele2.calculator.repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.config.ImportProperties;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultInputs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Seeds the result table from a file written by {@code GET /export}, CSV or NDJSON.
+ * <p>
+ * The file is read through memory-mapped windows and every line is parsed from the mapped bytes; only the inputs and
+ * the result are turned into Strings, to be bound to the insert. Rows are sent in JDBC batches of {@code batchSize}
+ * and committed every {@code commitInterval} rows, so an import that fails keeps what it committed and can simply be
+ * run again. The insert itself skips rows whose inputs and operation are stored already, through the unique digest
+ * index, which also drops repeated rows within the file. A result the service stores between that check and the insert
+ * violates the unique index instead; the batch is then rolled back to before it and inserted again one row at a time,
+ * and the rows that still clash are counted as skipped, like DataBaseDataStore takes them for stored already.
+ * <p>
+ * Ids are not taken from the file, they would collide with the results of the node seeded. They are drawn from
+ * result_seq the way Hibernate's pooled-lo optimizer draws them, a block of the sequence increment per value.
+ */
+@Component
+@Slf4j
+public class ResultImporter {
+
+    static final int WINDOW_SIZE = 256 << 20;
+
+    private static final String INSERT = """
+            INSERT INTO result (id, operation, result, inputs, digest_high, digest_low, last_access)
+            SELECT ?, ?, ?, ?, ?, ?, ? FROM DUAL
+            WHERE NOT EXISTS (SELECT 1 FROM result WHERE digest_high = ? AND digest_low = ? AND operation = ?)""";
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final byte[][] OPERATION_NAMES = Arrays.stream(OPERATIONS)
+            .map(operation -> operation.name().getBytes(StandardCharsets.US_ASCII))
+            .toArray(byte[][]::new);
+    private static final byte[] CSV_HEADER = "id,".getBytes(StandardCharsets.US_ASCII);
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportProperties properties;
+    private final int windowSize;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    public ResultImporter(JdbcTemplate jdbcTemplate, ImportProperties properties) {
+        this(jdbcTemplate, properties, WINDOW_SIZE);
+    }
+
+    ResultImporter(JdbcTemplate jdbcTemplate, ImportProperties properties, int windowSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @throws InvalidInputsException when a line is not a result
+     */
+    public ImportReport importFile(Path file) {
+        log.info("Importing results from {}", file);
+        ImportReport report = jdbcTemplate.execute((ConnectionCallback<ImportReport>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Import anImport = new Import(connection)) {
+                read(file, anImport);
+                anImport.finish();
+                return anImport.report();
+            } catch (IOException e) {
+                connection.rollback();
+                throw new UncheckedIOException(e);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        log.info("Imported {} of {} results from {} in {} ms, {} rows/s, skipped {}", report.imported(), report.rows(),
+                file, report.elapsed().toMillis(), report.rowsPerSecond(), report.skipped());
+        return report;
+    }
+
+    /**
+     * Maps the file a window at a time. A window ends after its last complete line, the next one starts at the line
+     * that did not fit.
+     */
+    private void read(Path file, Import anImport) throws IOException, SQLException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int start = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        anImport.line(window, start, i);
+                        start = i + 1;
+                    }
+                }
+                if (position + length == size) {
+                    anImport.line(window, start, length);
+                    position = size;
+                } else if (start == 0) {
+                    throw new InvalidInputsException("Line at offset " + position + " is longer than " + windowSize + " bytes");
+                } else {
+                    position += start;
+                }
+            }
+        }
+    }
+
+    private final class Import implements AutoCloseable {
+
+        private final Connection connection;
+        private final PreparedStatement insert;
+        private final PreparedStatement nextValue;
+        private final long increment;
+        private final long started = System.nanoTime();
+        private final List<Row> batch = new ArrayList<>();
+        private byte[] scratch = new byte[256];
+        private Boolean ndjson;
+        private long lineNumber;
+        private long nextId;
+        private long idLimit;
+        private int uncommitted;
+        private long rows;
+        private long imported;
+        private long skipped;
+
+        Import(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.insert = connection.prepareStatement(INSERT);
+            this.nextValue = connection.prepareStatement("SELECT NEXT VALUE FOR result_seq");
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(
+                         "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'RESULT_SEQ'")) {
+                this.increment = resultSet.next() ? resultSet.getLong(1) : 1;
+            }
+        }
+
+        void line(ByteBuffer buffer, int from, int to) throws SQLException, IOException {
+            while (from < to && isWhitespace(buffer.get(from))) {
+                from++;
+            }
+            while (to > from && isWhitespace(buffer.get(to - 1))) {
+                to--;
+            }
+            if (from == to) {
+                return;
+            }
+            lineNumber++;
+            if (ndjson == null) {
+                ndjson = buffer.get(from) == '{';
+                if (!ndjson && startsWith(buffer, from, to, CSV_HEADER)) {
+                    return;
+                }
+            }
+            if (ndjson) {
+                parseJson(buffer, from, to);
+            } else {
+                parseCsv(buffer, from, to);
+            }
+        }
+
+        /**
+         * id,operation,result,"numbers"
+         */
+        private void parseCsv(ByteBuffer buffer, int from, int to) throws SQLException {
+            int operationStart = indexOf(buffer, from, to, (byte) ',') + 1;
+            int operationEnd = indexOf(buffer, operationStart, to, (byte) ',');
+            int resultEnd = indexOf(buffer, operationEnd + 1, to, (byte) ',');
+            if (operationStart == 0 || operationEnd < 0 || resultEnd < 0) {
+                throw invalid();
+            }
+            Operation operation = operation(buffer, operationStart, operationEnd);
+            double result;
+            try {
+                result = Double.parseDouble(string(buffer, operationEnd + 1, resultEnd));
+            } catch (NumberFormatException e) {
+                throw invalid();
+            }
+            int numbersStart = resultEnd + 1;
+            int numbersEnd = to;
+            if (numbersStart < to && buffer.get(numbersStart) == '"') {
+                if (numbersEnd - numbersStart < 2 || buffer.get(numbersEnd - 1) != '"') {
+                    throw invalid();
+                }
+                numbersStart++;
+                numbersEnd--;
+            }
+            add(operation, result, numbersStart == numbersEnd ? null : string(buffer, numbersStart, numbersEnd));
+        }
+
+        private void parseJson(ByteBuffer buffer, int from, int to) throws SQLException, IOException {
+            int length = to - from;
+            ensureScratch(length);
+            buffer.get(from, scratch, 0, length);
+            Operation operation = null;
+            Double result = null;
+            String numbers = null;
+            try (JsonParser parser = jsonFactory.createParser(scratch, 0, length)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw invalid();
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    switch (field) {
+                        case "operation" -> operation = operation(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                        case "result" -> result = result(parser, value);
+                        case "numbers" -> numbers = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                        default -> parser.skipChildren();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                throw invalid();
+            }
+            if (operation == null || result == null) {
+                throw invalid();
+            }
+            add(operation, result, numbers);
+        }
+
+        /**
+         * Jackson writes NaN and the infinities as strings, the way {@link Double#toString} does, since JSON numbers
+         * cannot hold them.
+         */
+        private Double result(JsonParser parser, JsonToken value) throws IOException {
+            if (value.isNumeric()) {
+                return parser.getDoubleValue();
+            }
+            if (value == JsonToken.VALUE_STRING) {
+                return switch (parser.getText()) {
+                    case "NaN", "Infinity", "-Infinity" -> Double.parseDouble(parser.getText());
+                    default -> null;
+                };
+            }
+            return null;
+        }
+
+        /**
+         * Results stored without their inputs can never be looked up, they are skipped.
+         */
+        private void add(Operation operation, double result, String numbers) throws SQLException {
+            rows++;
+            if (numbers == null || numbers.isEmpty()) {
+                skipped++;
+                return;
+            }
+            Row row = new Row(nextId(), operation, result, ResultInputs.encode(numbers), ResultDigest.of(numbers, operation),
+                    System.currentTimeMillis());
+            bind(row);
+            insert.addBatch();
+            batch.add(row);
+            if (batch.size() == properties.batchSize()) {
+                flush();
+            }
+        }
+
+        private void bind(Row row) throws SQLException {
+            insert.setInt(1, row.id());
+            insert.setString(2, row.operation().name());
+            insert.setDouble(3, row.result());
+            insert.setBytes(4, row.inputs());
+            insert.setLong(5, row.digest().high());
+            insert.setLong(6, row.digest().low());
+            insert.setLong(7, row.lastAccess());
+            insert.setLong(8, row.digest().high());
+            insert.setLong(9, row.digest().low());
+            insert.setString(10, row.operation().name());
+        }
+
+        private int nextId() throws SQLException {
+            if (nextId == idLimit) {
+                try (ResultSet resultSet = nextValue.executeQuery()) {
+                    resultSet.next();
+                    nextId = resultSet.getLong(1);
+                }
+                idLimit = nextId + increment;
+            }
+            return Math.toIntExact(nextId++);
+        }
+
+        private void flush() throws SQLException {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                for (int count : insert.executeBatch()) {
+                    counted(count);
+                }
+            } catch (SQLException e) {
+                if (!isUniqueViolation(e)) {
+                    throw e;
+                }
+                insert.clearBatch();
+                connection.rollback(savepoint);
+                log.info("{} imported results were partly stored meanwhile, inserting them one by one", batch.size());
+                insertOneByOne();
+            }
+            uncommitted += batch.size();
+            batch.clear();
+            if (uncommitted >= properties.commitInterval()) {
+                commit();
+            }
+        }
+
+        private void insertOneByOne() throws SQLException {
+            for (Row row : batch) {
+                Savepoint savepoint = connection.setSavepoint();
+                bind(row);
+                try {
+                    counted(insert.executeUpdate());
+                } catch (SQLException e) {
+                    if (!isUniqueViolation(e)) {
+                        throw e;
+                    }
+                    connection.rollback(savepoint);
+                    skipped++;
+                }
+            }
+        }
+
+        private void counted(int count) {
+            if (count == 0) {
+                skipped++;
+            } else {
+                imported++;
+            }
+        }
+
+        private void commit() throws SQLException {
+            connection.commit();
+            uncommitted = 0;
+            log.info("Imported {} of {} results, {} rows/s", imported, rows, report().rowsPerSecond());
+        }
+
+        void finish() throws SQLException {
+            flush();
+            commit();
+        }
+
+        ImportReport report() {
+            return new ImportReport(rows, imported, skipped, Duration.ofNanos(System.nanoTime() - started));
+        }
+
+        private Operation operation(ByteBuffer buffer, int from, int to) {
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                byte[] name = OPERATION_NAMES[i];
+                if (to - from == name.length && startsWith(buffer, from, to, name)) {
+                    return OPERATIONS[i];
+                }
+            }
+            throw invalid();
+        }
+
+        private Operation operation(char[] text, int offset, int length) {
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                byte[] name = OPERATION_NAMES[i];
+                if (length == name.length && matches(text, offset, name)) {
+                    return OPERATIONS[i];
+                }
+            }
+            throw invalid();
+        }
+
+        private String string(ByteBuffer buffer, int from, int to) {
+            int length = to - from;
+            ensureScratch(length);
+            buffer.get(from, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private void ensureScratch(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+        }
+
+        private InvalidInputsException invalid() {
+            return new InvalidInputsException("Line " + lineNumber + " is not a result");
+        }
+
+        @Override
+        public void close() throws SQLException {
+            insert.close();
+            nextValue.close();
+        }
+    }
+
+    private record Row(int id, Operation operation, double result, byte[] inputs, ResultDigest digest, long lastAccess) {
+    }
+
+    private static boolean isUniqueViolation(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (UNIQUE_VIOLATION.equals(next.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(char[] text, int offset, byte[] name) {
+        for (int i = 0; i < name.length; i++) {
+            if (text[offset + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
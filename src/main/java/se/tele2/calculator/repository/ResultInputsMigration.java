@@ -0,0 +1,130 @@
+package se.tele2.calculator.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.model.ResultInputs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves the inputs of databases created before the binary inputs column out of the text numbers column.
+ * Hibernate adds the inputs column but leaves the numbers column, and the inputs of the rows stored before, where they
+ * are. The rows are encoded in batches in id order, so a migration that broke off continues where it stopped. Every
+ * batch is read back once written and its inputs decoded and compared with the numbers. The numbers column is kept,
+ * {@link ResultNumbersDropMigration} drops it when asked to.
+ * <p>
+ * Lookups only read the inputs column, so a row not moved yet would not be found, calculated again and clash with
+ * its own digest on insert. The migration therefore runs while the context starts, before the web server takes
+ * requests, and after {@link ResultDigestMigration}, which it gets handed for that. For large databases startup
+ * takes as long as the migration. Rows whose inputs do not decode to their numbers get their inputs cleared again and
+ * stop the startup, so they are neither served nor taken for migrated on the next start.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@AllArgsConstructor
+@Slf4j
+public class ResultInputsMigration implements InitializingBean {
+
+    private static final int BATCH_SIZE = 500;
+
+    private JdbcTemplate jdbcTemplate;
+    private ResultDigestMigration digestMigration;
+
+    @Override
+    public void afterPropertiesSet() {
+        run();
+    }
+
+    public void run() {
+        if (!hasNumbersColumn()) {
+            return;
+        }
+        int lastId = 0;
+        int encoded = 0;
+        long textBytes = 0;
+        long inputBytes = 0;
+        List<Integer> mismatches = new ArrayList<>();
+        List<Row> rows;
+        do {
+            rows = jdbcTemplate.query(
+                    "SELECT id, numbers FROM result WHERE inputs IS NULL AND numbers IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Row(rs.getInt("id"), rs.getString("numbers")),
+                    lastId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Object[]> updates = rows.stream()
+                    .map(row -> new Object[]{ResultInputs.encode(row.numbers()), row.id()})
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE result SET inputs = ? WHERE id = ?", updates);
+            int firstId = rows.get(0).id();
+            for (int i = 0; i < rows.size(); i++) {
+                lastId = rows.get(i).id();
+                textBytes += rows.get(i).numbers().length();
+                inputBytes += ((byte[]) updates.get(i)[0]).length;
+            }
+            mismatches.addAll(mismatches(firstId - 1, lastId));
+            encoded += rows.size();
+        } while (rows.size() == BATCH_SIZE);
+        if (!mismatches.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE result SET inputs = NULL WHERE id = ?",
+                    mismatches.stream().map(id -> new Object[]{id}).toList());
+            throw new IllegalStateException("Inputs of " + mismatches.size() + " results do not decode to their numbers, "
+                    + "first result " + mismatches.get(0) + ", result.numbers is kept");
+        }
+        if (encoded > 0) {
+            log.info("Moved the inputs of {} results from {} bytes of text to {} bytes and verified them", encoded,
+                    textBytes, inputBytes);
+        }
+    }
+
+    boolean hasNumbersColumn() {
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'RESULT' AND COLUMN_NAME = 'NUMBERS'",
+                Integer.class);
+        return columns != null && columns > 0;
+    }
+
+    /**
+     * Decodes the stored inputs of the rows with numbers after {@code afterId} up to {@code lastId} and compares them
+     * with their numbers.
+     *
+     * @return ids of the rows without inputs or whose inputs do not decode to their numbers
+     */
+    List<Integer> mismatches(int afterId, int lastId) {
+        List<Integer> mismatches = new ArrayList<>();
+        List<Stored> rows;
+        do {
+            rows = jdbcTemplate.query(
+                    "SELECT id, numbers, inputs FROM result WHERE numbers IS NOT NULL AND id > ? AND id <= ? ORDER BY id LIMIT ?",
+                    (rs, rowNum) -> new Stored(rs.getInt("id"), rs.getString("numbers"), rs.getBytes("inputs")),
+                    afterId, lastId, BATCH_SIZE);
+            for (Stored row : rows) {
+                afterId = row.id();
+                if (!row.matches()) {
+                    mismatches.add(row.id());
+                }
+            }
+        } while (rows.size() == BATCH_SIZE);
+        return mismatches;
+    }
+
+    private record Row(int id, String numbers) {
+    }
+
+    private record Stored(int id, String numbers, byte[] inputs) {
+
+        boolean matches() {
+            try {
+                return inputs != null && numbers.equals(ResultInputs.decode(inputs));
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package se.tele2.calculator.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Drops the numbers column {@link ResultInputsMigration} leaves behind, only when
+ * calculator.migration.drop-numbers is true. Every row with numbers is decoded and compared once more first, and the
+ * column is kept when any of them does not match, so the text stays the source of truth until all of it is verified.
+ * Runs after {@link ResultInputsMigration}, which it gets handed for that.
+ */
+@Component
+@ConditionalOnProperty(prefix = "calculator.migration", name = "drop-numbers", havingValue = "true")
+@DependsOn("entityManagerFactory")
+@AllArgsConstructor
+@Slf4j
+public class ResultNumbersDropMigration implements InitializingBean {
+
+    private JdbcTemplate jdbcTemplate;
+    private ResultInputsMigration inputsMigration;
+
+    @Override
+    public void afterPropertiesSet() {
+        run();
+    }
+
+    public void run() {
+        if (!inputsMigration.hasNumbersColumn()) {
+            return;
+        }
+        List<Integer> mismatches = inputsMigration.mismatches(0, Integer.MAX_VALUE);
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Inputs of " + mismatches.size() + " results do not decode to their numbers, "
+                    + "first result " + mismatches.get(0) + ", result.numbers is kept");
+        }
+        jdbcTemplate.execute("ALTER TABLE result DROP COLUMN numbers");
+        log.info("Verified the inputs of every result, dropped result.numbers");
+    }
+}
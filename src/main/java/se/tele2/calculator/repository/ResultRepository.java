@@ -4,10 +4,44 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultKey;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Repository
 public interface ResultRepository extends JpaRepository<Result, Integer> {
-    Optional<Result> findByNumbersAndOperation(String numbers, Operation operation);
+
+    Optional<Result> findByDigestHighAndDigestLowAndOperation(Long digestHigh, Long digestLow, Operation operation);
+
+    List<Result> findAllByDigestHighIn(Collection<Long> digestHighs);
+
+    /**
+     * Looks the result up through the indexed digest and only compares the full numbers to rule out a digest collision.
+     */
+    default Optional<Result> findByNumbersAndOperation(String numbers, Operation operation) {
+        ResultDigest digest = ResultDigest.of(numbers, operation);
+        return findByDigestHighAndDigestLowAndOperation(digest.high(), digest.low(), operation)
+                .filter(result -> numbers.equals(result.getNumbers()));
+    }
+
+    /**
+     * Resolves many keys with one query on the indexed high half of their digests, the rest of the key is matched in memory.
+     */
+    default List<Result> findAllByKeys(Collection<ResultKey> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        Set<ResultKey> wanted = Set.copyOf(keys);
+        Set<Long> digestHighs = wanted.stream()
+                .map(key -> key.digest().high())
+                .collect(Collectors.toSet());
+        return findAllByDigestHighIn(digestHighs).stream()
+                .filter(result -> wanted.contains(result.key()))
+                .toList();
+    }
 }
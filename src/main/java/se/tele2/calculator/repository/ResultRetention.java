@@ -0,0 +1,218 @@
+package se.tele2.calculator.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.tele2.calculator.config.RetentionProperties;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultInputs;
+import se.tele2.calculator.model.ResultKey;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the result table within the limits of each operation, see {@link RetentionProperties}. A run, every
+ * {@code interval} on a background thread:
+ * <ol>
+ *     <li>writes the time of the run as last access of the results read since the run before</li>
+ *     <li>stamps results of limited operations stored before last access was tracked with the time of the run, their
+ *     ttl starts then</li>
+ *     <li>deletes the results of an operation not accessed within its ttl</li>
+ *     <li>deletes the least recently used results of an operation beyond its max rows</li>
+ * </ol>
+ * Rows are updated and deleted {@code chunkSize} at a time, each chunk committed on its own and followed by a pause of
+ * {@code pause} or as long as the chunk took, whichever is longer. A run never holds locks for long and keeps the
+ * database busy for at most half of the time, however slow the chunks get under load. Results to delete
+ * are found through the index on operation and last access, and are invalidated in the cache once deleted.
+ */
+@Slf4j
+public class ResultRetention implements MeterBinder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CachingDataStore cache;
+    private final ResultAccessTracker accessTracker;
+    private final Map<Operation, RetentionProperties.Limits> limits;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final Clock clock;
+    private final Map<Operation, LongAdder> expired = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> evicted = new EnumMap<>(Operation.class);
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "result-retention");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ResultRetention(JdbcTemplate jdbcTemplate, CachingDataStore cache, ResultAccessTracker accessTracker,
+                           RetentionProperties properties, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = cache;
+        this.accessTracker = accessTracker;
+        this.limits = properties.operations();
+        this.chunkSize = properties.chunkSize();
+        this.pauseMillis = properties.pause().toMillis();
+        this.clock = clock;
+        for (Operation operation : Operation.values()) {
+            expired.put(operation, new LongAdder());
+            evicted.put(operation, new LongAdder());
+        }
+        long interval = properties.interval().toMillis();
+        executor.scheduleWithFixedDelay(this::runSafely, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void run() throws InterruptedException {
+        long start = clock.millis();
+        writeAccesses(start);
+        stampUntracked(start);
+        long expiredBefore = sum(expired);
+        long evictedBefore = sum(evicted);
+        for (Map.Entry<Operation, RetentionProperties.Limits> entry : limits.entrySet()) {
+            Operation operation = entry.getKey();
+            RetentionProperties.Limits limit = entry.getValue();
+            if (limit.ttl() != null) {
+                expire(operation, start - limit.ttl().toMillis());
+            }
+            if (limit.maxRows() != null) {
+                evict(operation, limit.maxRows());
+            }
+        }
+        long expiredNow = sum(expired) - expiredBefore;
+        long evictedNow = sum(evicted) - evictedBefore;
+        if (expiredNow > 0 || evictedNow > 0) {
+            log.info("Deleted {} expired and {} least recently used results in {} ms", expiredNow, evictedNow,
+                    clock.millis() - start);
+        }
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Retention run failed, trying again in the next run", e);
+        }
+    }
+
+    private void writeAccesses(long now) throws InterruptedException {
+        List<Integer> ids = new ArrayList<>(accessTracker.drain());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            long started = System.nanoTime();
+            List<Object[]> updates = ids.subList(from, Math.min(from + chunkSize, ids.size())).stream()
+                    .map(id -> new Object[]{now, id})
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE result SET last_access = ? WHERE id = ?", updates);
+            pause(started);
+        }
+    }
+
+    private void stampUntracked(long now) throws InterruptedException {
+        for (Operation operation : limits.keySet()) {
+            int stamped;
+            do {
+                long started = System.nanoTime();
+                stamped = jdbcTemplate.update(
+                        "UPDATE result SET last_access = ? WHERE operation = ? AND last_access IS NULL LIMIT ?",
+                        now, operation.name(), chunkSize);
+                if (stamped > 0) {
+                    pause(started);
+                }
+            } while (stamped == chunkSize);
+        }
+    }
+
+    private void expire(Operation operation, long accessedBefore) throws InterruptedException {
+        List<Victim> victims;
+        do {
+            long started = System.nanoTime();
+            victims = jdbcTemplate.query(
+                    "SELECT id, inputs FROM result WHERE operation = ? AND last_access < ? ORDER BY operation, last_access LIMIT ?",
+                    (rs, rowNum) -> new Victim(rs.getInt(1), rs.getBytes(2)),
+                    operation.name(), accessedBefore, chunkSize);
+            delete(operation, victims, started);
+            expired.get(operation).add(victims.size());
+        } while (victims.size() == chunkSize);
+    }
+
+    private void evict(Operation operation, long maxRows) throws InterruptedException {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM result WHERE operation = ?", Long.class,
+                operation.name());
+        long excess = Objects.requireNonNullElse(rows, 0L) - maxRows;
+        while (excess > 0) {
+            long started = System.nanoTime();
+            List<Victim> victims = jdbcTemplate.query(
+                    "SELECT id, inputs FROM result WHERE operation = ? ORDER BY operation, last_access LIMIT ?",
+                    (rs, rowNum) -> new Victim(rs.getInt(1), rs.getBytes(2)),
+                    operation.name(), Math.min(chunkSize, excess));
+            if (victims.isEmpty()) {
+                return;
+            }
+            delete(operation, victims, started);
+            evicted.get(operation).add(victims.size());
+            excess -= victims.size();
+        }
+    }
+
+    private void delete(Operation operation, List<Victim> victims, long started) throws InterruptedException {
+        if (victims.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM result WHERE id = ?", victims.stream()
+                .map(victim -> new Object[]{victim.id()})
+                .toList());
+        cache.invalidateAll(victims.stream()
+                .filter(victim -> victim.inputs() != null)
+                .map(victim -> new ResultKey(ResultInputs.decode(victim.inputs()), operation))
+                .toList());
+        pause(started);
+    }
+
+    /**
+     * @param started {@link System#nanoTime()} at the start of the chunk just done
+     */
+    private void pause(long started) throws InterruptedException {
+        long millis = Math.max(pauseMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static long sum(Map<Operation, LongAdder> counts) {
+        return counts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Publishes {@code calculator.retention.deleted} per operation and reason, ttl or size.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Operation operation : Operation.values()) {
+            FunctionCounter.builder("calculator.retention.deleted", expired.get(operation), LongAdder::sum)
+                    .description("Results deleted by retention")
+                    .tags("operation", operation.name(), "reason", "ttl")
+                    .register(registry);
+            FunctionCounter.builder("calculator.retention.deleted", evicted.get(operation), LongAdder::sum)
+                    .description("Results deleted by retention")
+                    .tags("operation", operation.name(), "reason", "size")
+                    .register(registry);
+        }
+    }
+
+    private record Victim(int id, byte[] inputs) {
+    }
+}
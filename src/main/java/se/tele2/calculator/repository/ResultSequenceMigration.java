@@ -0,0 +1,31 @@
+package se.tele2.calculator.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Results used to get their id from an identity column, so the result_seq sequence Hibernate creates for databases
+ * from before the switch starts at 1 and would hand out ids that are already taken. Moves it past the highest id.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class ResultSequenceMigration implements ApplicationRunner {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM result", Long.class);
+        Long currentValue = jdbcTemplate.queryForObject(
+                "SELECT CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'RESULT_SEQ'", Long.class);
+        if (maxId != null && currentValue != null && currentValue < maxId) {
+            log.info("Restarting result_seq after the highest result id {}", maxId);
+            jdbcTemplate.execute("ALTER SEQUENCE result_seq RESTART WITH " + (maxId + 1));
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package se.tele2.calculator.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Saves results in the background so callers do not wait for the insert and commit of new results.
+ * Queued results are written in batches by a single writer thread, when {@code batchSize} of them are waiting or
+ * at the latest after {@code flushInterval}. While they are queued they are still found by their numbers and operation.
+ * Results only get an id once written, so a lookup of an id above every id written so far that is not found yet
+ * first waits for every queued result to be written. Ids below belong to results written already, their lookups do
+ * not wait. When the queue stays full callers write their result themselves.
+ */
+@Slf4j
+public class WriteBehindDataStore implements DataStore, MeterBinder {
+
+    private final DataStore delegate;
+    private final int batchSize;
+    private final Duration offerTimeout;
+    private final BlockingQueue<Result> queue;
+    private final Map<ResultKey, Result> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicInteger highestId = new AtomicInteger();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "result-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public WriteBehindDataStore(DataStore delegate, int batchSize, Duration flushInterval, int queueCapacity, Duration offerTimeout) {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.offerTimeout = offerTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        writer.scheduleWithFixedDelay(this::flushQueue, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Result save(Result result) {
+        ResultKey key = result.key();
+        Result queued = pending.putIfAbsent(key, result);
+        if (queued != null) {
+            return queued;
+        }
+        boolean offered;
+        try {
+            offered = queue.offer(result, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if (!offered) {
+            log.warn("Result queue is full, writing result on the calling thread");
+            try {
+                return written(delegate.save(result));
+            } finally {
+                pending.remove(key);
+            }
+        }
+        if (queue.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            writer.execute(this::flushQueue);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Result> saveAll(List<Result> results) {
+        List<Result> saved = new ArrayList<>(results.size());
+        for (Result result : results) {
+            saved.add(save(result));
+        }
+        return saved;
+    }
+
+    @Override
+    public Optional<Result> findByNumbersAndOperation(String numbers, Operation operation) {
+        Result queued = pending.get(new ResultKey(numbers, operation));
+        if (queued != null) {
+            return Optional.of(queued);
+        }
+        return delegate.findByNumbersAndOperation(numbers, operation);
+    }
+
+    @Override
+    public List<Result> findAllByKeys(Collection<ResultKey> keys) {
+        List<Result> results = new ArrayList<>(keys.size());
+        List<ResultKey> notQueued = new ArrayList<>();
+        for (ResultKey key : keys) {
+            Result queued = pending.get(key);
+            if (queued != null) {
+                results.add(queued);
+            } else {
+                notQueued.add(key);
+            }
+        }
+        if (!notQueued.isEmpty()) {
+            results.addAll(delegate.findAllByKeys(notQueued));
+        }
+        return results;
+    }
+
+    @Override
+    public Optional<Result> findById(int id) {
+        Optional<Result> result = delegate.findById(id);
+        if (result.isPresent() || pending.isEmpty() || id <= highestId.get()) {
+            return result;
+        }
+        flush();
+        return delegate.findById(id);
+    }
+
+    /**
+     * Waits until every result queued so far is written.
+     */
+    public void flush() {
+        try {
+            writer.submit(this::flushQueue).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Could not flush queued results", e.getCause());
+        }
+    }
+
+    public int queued() {
+        return pending.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calculator.write.behind.queued", this, WriteBehindDataStore::queued)
+                .description("Results waiting to be written")
+                .register(registry);
+    }
+
+    /**
+     * Stops the writer and writes whatever is still queued.
+     */
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Result writer did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQueue();
+    }
+
+    private void flushQueue() {
+        flushRequested.set(false);
+        List<Result> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void write(List<Result> batch) {
+        try {
+            delegate.saveAll(batch).forEach(this::written);
+        } catch (RuntimeException e) {
+            log.warn("Could not write a batch of {} results, writing them one by one", batch.size(), e);
+            batch.forEach(this::writeOne);
+        } finally {
+            batch.forEach(result -> pending.remove(result.key()));
+        }
+    }
+
+    private Result written(Result result) {
+        if (result.getId() != null) {
+            highestId.accumulateAndGet(result.getId(), Math::max);
+        }
+        return result;
+    }
+
+    private void writeOne(Result result) {
+        try {
+            written(delegate.save(result));
+        } catch (DataIntegrityViolationException e) {
+            log.info("Result for {} operation of {} is stored already", result.getOperation(), result.getNumbers());
+        } catch (RuntimeException e) {
+            log.error("Could not write result for {} operation of {}", result.getOperation(), result.getNumbers(), e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package se.tele2.calculator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import se.tele2.calculator.config.AccumulatorProperties;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.model.Accumulator;
+import se.tele2.calculator.model.AccumulatorResponse;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.repository.AccumulatorRepository;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+/**
+ * Keeps running calculations in memory, so appending inputs costs the same however many inputs came before.
+ * Inputs are folded in the order they are appended, also for addition and multiplication, and are not stored;
+ * only the current value and the number of inputs are. Changed accumulators are written to the database in the
+ * background every {@code snapshotInterval} and when the service shuts down, not on every append.
+ * <p>
+ * Accumulators not used for {@code idleTimeout} are dropped from memory after a last snapshot, and loaded from their
+ * snapshot again when they are used next. An append racing with the drop waits for the snapshot and goes to the
+ * loaded accumulator, so no input is lost.
+ */
+@Service
+@Slf4j
+public class AccumulatorService implements DisposableBean {
+
+    private final AccumulatorRepository repository;
+    private final Cache<Integer, State> states;
+    private final ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "accumulator-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public AccumulatorService(AccumulatorRepository repository, AccumulatorProperties properties) {
+        this(repository, properties, Ticker.systemTicker());
+    }
+
+    AccumulatorService(AccumulatorRepository repository, AccumulatorProperties properties, Ticker ticker) {
+        this.repository = repository;
+        this.states = Caffeine.newBuilder()
+                .expireAfterAccess(properties.idleTimeout())
+                .ticker(ticker)
+                .evictionListener(this::evicted)
+                .build();
+        long interval = properties.snapshotInterval().toMillis();
+        snapshotter.scheduleWithFixedDelay(this::snapshot, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public AccumulatorResponse create(Operation operation) {
+        Calculator.checkArithmetic(operation);
+        Accumulator accumulator = repository.save(Accumulator.builder()
+                .operation(operation)
+                .build());
+        State state = new State(accumulator);
+        states.put(accumulator.getId(), state);
+        return state.response();
+    }
+
+    /**
+     * @throws ArithmeticException when dividing by zero, none of the inputs are appended then
+     */
+    public AccumulatorResponse append(int id, double[] inputs) {
+        if (inputs.length == 0) {
+            throw new EmptyInputsException("No number to do the operation");
+        }
+        while (true) {
+            AccumulatorResponse response = state(id).append(inputs);
+            if (response != null) {
+                return response;
+            }
+        }
+    }
+
+    public AccumulatorResponse get(int id) {
+        return state(id).response();
+    }
+
+    /**
+     * Writes every accumulator that changed since its last snapshot, and drops the accumulators that were idle too
+     * long.
+     */
+    public void snapshot() {
+        for (State state : states.asMap().values()) {
+            synchronized (state.writing) {
+                Snapshot snapshot = state.changes();
+                if (snapshot == null) {
+                    continue;
+                }
+                try {
+                    repository.updateSnapshot(state.id, snapshot.result(), snapshot.inputs());
+                    state.written(snapshot.version());
+                } catch (RuntimeException e) {
+                    log.warn("Could not write snapshot of accumulator {}, retrying with the next snapshot", state.id, e);
+                }
+            }
+        }
+        states.cleanUp();
+    }
+
+    long inMemory() {
+        return states.estimatedSize();
+    }
+
+    /**
+     * Runs while the accumulator is being dropped, so loading it again waits until its last snapshot is written. The
+     * snapshot may be running at the same time, writing under the same lock keeps it from overwriting the last
+     * snapshot with an older one.
+     */
+    private void evicted(Integer id, State state, RemovalCause cause) {
+        synchronized (state.writing) {
+            Snapshot snapshot = state.retire();
+            if (snapshot == null) {
+                return;
+            }
+            try {
+                repository.updateSnapshot(state.id, snapshot.result(), snapshot.inputs());
+                state.written(snapshot.version());
+            } catch (RuntimeException e) {
+                log.error("Could not write last snapshot of idle accumulator {}, appends since its last snapshot are lost",
+                        state.id, e);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        snapshotter.shutdown();
+        snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        snapshot();
+    }
+
+    private State state(int id) {
+        return states.get(id, key -> repository.findById(key)
+                .map(State::new)
+                .orElseThrow(() -> new NotFoundException("Accumulator does not exist")));
+    }
+
+    private record Snapshot(double result, long inputs, long version) {
+    }
+
+    private static final class State {
+
+        private final int id;
+        private final Operation operation;
+        /**
+         * Held while a snapshot is taken and written, not while appending.
+         */
+        private final Object writing = new Object();
+        private double result;
+        private long inputs;
+        private long version;
+        private long written;
+        private boolean retired;
+
+        State(Accumulator accumulator) {
+            this.id = accumulator.getId();
+            this.operation = accumulator.getOperation();
+            this.result = accumulator.getResult();
+            this.inputs = accumulator.getInputs();
+        }
+
+        /**
+         * @return null when the accumulator was dropped from memory, the inputs have to go to the one loaded again
+         */
+        synchronized AccumulatorResponse append(double[] values) {
+            if (retired) {
+                return null;
+            }
+            int from = 0;
+            double value = result;
+            if (inputs == 0) {
+                value = values[0];
+                from = 1;
+            }
+            if (operation == DIVISION && ReductionKernel.containsZero(values, from, values.length)) {
+                throw new ArithmeticException("Divide by zero.");
+            }
+            for (int i = from; i < values.length; i++) {
+                value = apply(value, values[i]);
+            }
+            result = value;
+            inputs += values.length;
+            version++;
+            return response();
+        }
+
+        synchronized AccumulatorResponse response() {
+            return new AccumulatorResponse(id, operation, inputs == 0 ? null : result, inputs);
+        }
+
+        synchronized Snapshot changes() {
+            return version == written ? null : new Snapshot(result, inputs, version);
+        }
+
+        synchronized void written(long version) {
+            written = Math.max(written, version);
+        }
+
+        /**
+         * Takes no appends any more.
+         *
+         * @return the changes since the last snapshot, null when there are none
+         */
+        synchronized Snapshot retire() {
+            retired = true;
+            return changes();
+        }
+
+        private double apply(double value, double input) {
+            if (operation == ADDITION) {
+                return value + input;
+            }
+            if (operation == MULTIPLICATION) {
+                return value * input;
+            }
+            return operation == DIVISION ? value / input : value - input;
+        }
+    }
+}
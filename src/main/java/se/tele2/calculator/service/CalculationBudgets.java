@@ -0,0 +1,56 @@
+package se.tele2.calculator.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+
+/**
+ * Separate {@link ConcurrencyLimiter limits} for the requests in progress and for the calculations of new results among
+ * them. Answering with a stored result is cheap next to calculating, so a burst of calculations of long inputs does not
+ * take the room of the requests that are answered with a stored result.
+ */
+public class CalculationBudgets implements MeterBinder {
+
+    private final ConcurrencyLimiter requests;
+    private final ConcurrencyLimiter computations;
+
+    public CalculationBudgets(ConcurrencyLimiter requests, ConcurrencyLimiter computations) {
+        this.requests = requests;
+        this.computations = computations;
+    }
+
+    public static CalculationBudgets unlimited() {
+        return new CalculationBudgets(ConcurrencyLimiter.unlimited("Requests"), ConcurrencyLimiter.unlimited("Calculations"));
+    }
+
+    public ConcurrencyLimiter requests() {
+        return requests;
+    }
+
+    public ConcurrencyLimiter computations() {
+        return computations;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map.of("requests", requests, "computations", computations).forEach((budget, limiter) -> {
+            Gauge.builder("calculator.limiter.limit", limiter, ConcurrencyLimiter::limit)
+                    .description("Inputs that may be in progress")
+                    .baseUnit("inputs")
+                    .tag("budget", budget)
+                    .register(registry);
+            Gauge.builder("calculator.limiter.inflight", limiter, ConcurrencyLimiter::inFlight)
+                    .description("Inputs in progress")
+                    .baseUnit("inputs")
+                    .tag("budget", budget)
+                    .register(registry);
+            FunctionCounter.builder("calculator.limiter.rejected", limiter, ConcurrencyLimiter::rejected)
+                    .description("Requests rejected because they did not fit the limit")
+                    .tag("budget", budget)
+                    .register(registry);
+        });
+    }
+}
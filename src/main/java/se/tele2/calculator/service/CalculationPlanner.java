@@ -0,0 +1,161 @@
+package se.tele2.calculator.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import se.tele2.calculator.model.Operation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides per calculation whether it is worth going through the store. Looking a result up means writing the canonical
+ * text of the inputs and querying the store, and a result that is not found is inserted; for a few inputs that costs
+ * far more than the arithmetic, and fills the store with results nobody asks for again.
+ * <p>
+ * The planner keeps a moving average of the time a lookup takes and of the time a calculation takes per input, per
+ * operation, from the calculations it sees. A calculation of at most {@code maxInputs} inputs that is expected to take
+ * no more than {@code costRatio} times a lookup is calculated {@link Plan#INLINE inline}, everything else is
+ * {@link Plan#STORED stored}. Until both averages of an operation are known its calculations are stored.
+ */
+public class CalculationPlanner implements MeterBinder {
+
+    private static final double SMOOTHING = 0.05;
+
+    public enum Plan {
+        /**
+         * Calculate without looking up or storing the result.
+         */
+        INLINE,
+        /**
+         * Reuse the stored result, or calculate and store it.
+         */
+        STORED
+    }
+
+    private final boolean enabled;
+    private final int maxInputs;
+    private final double costRatio;
+    private final Map<Operation, Estimates> estimates = new EnumMap<>(Operation.class);
+
+    public CalculationPlanner(boolean enabled, int maxInputs, double costRatio) {
+        this.enabled = enabled;
+        this.maxInputs = maxInputs;
+        this.costRatio = costRatio;
+        for (Operation operation : Operation.values()) {
+            estimates.put(operation, new Estimates());
+        }
+    }
+
+    public Plan plan(Operation operation, int inputs) {
+        Estimates estimate = estimates.get(operation);
+        Plan plan = enabled && inputs <= maxInputs && inputs * estimate.computeNanosPerInput() <= costRatio * estimate.lookupNanos()
+                ? Plan.INLINE
+                : Plan.STORED;
+        (plan == Plan.INLINE ? estimate.inline : estimate.stored).increment();
+        return plan;
+    }
+
+    /**
+     * @param nanos time it took to write the key of the inputs and look it up
+     */
+    public void lookedUp(Operation operation, long nanos) {
+        estimates.get(operation).lookup.add(nanos);
+    }
+
+    /**
+     * @param nanos time it took to calculate the inputs
+     */
+    public void calculated(Operation operation, int inputs, long nanos) {
+        if (inputs > 0) {
+            estimates.get(operation).compute.add((double) nanos / inputs);
+        }
+    }
+
+    /**
+     * Most inputs a calculation can have to be calculated inline with the current averages, 0 when none is.
+     */
+    public long inlineInputs(Operation operation) {
+        if (!enabled) {
+            return 0;
+        }
+        Estimates estimate = estimates.get(operation);
+        return (long) Math.min(maxInputs, costRatio * estimate.lookupNanos() / estimate.computeNanosPerInput());
+    }
+
+    public long decisions(Operation operation, Plan plan) {
+        Estimates estimate = estimates.get(operation);
+        return (plan == Plan.INLINE ? estimate.inline : estimate.stored).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        estimates.forEach((operation, estimate) -> {
+            String tag = operation.name();
+            FunctionCounter.builder("calculator.planner.decisions", estimate.inline, LongAdder::sum)
+                    .description("Calculations by whether they were planned inline or through the store")
+                    .tags("operation", tag, "plan", "inline")
+                    .register(registry);
+            FunctionCounter.builder("calculator.planner.decisions", estimate.stored, LongAdder::sum)
+                    .description("Calculations by whether they were planned inline or through the store")
+                    .tags("operation", tag, "plan", "stored")
+                    .register(registry);
+            TimeGauge.builder("calculator.planner.lookup", estimate.lookup, TimeUnit.NANOSECONDS, Average::value)
+                    .description("Average time of writing the key of a calculation and looking it up")
+                    .tag("operation", tag)
+                    .register(registry);
+            TimeGauge.builder("calculator.planner.compute", estimate.compute, TimeUnit.NANOSECONDS, Average::value)
+                    .description("Average time of calculating per input")
+                    .tag("operation", tag)
+                    .register(registry);
+            Gauge.builder("calculator.planner.inline.inputs", this, planner -> planner.inlineInputs(operation))
+                    .description("Most inputs of a calculation that is calculated inline")
+                    .tag("operation", tag)
+                    .register(registry);
+        });
+    }
+
+    private static final class Estimates {
+
+        private final Average lookup = new Average();
+        private final Average compute = new Average();
+        private final LongAdder inline = new LongAdder();
+        private final LongAdder stored = new LongAdder();
+
+        double lookupNanos() {
+            return lookup.value();
+        }
+
+        /**
+         * Infinite until a calculation was seen, so nothing is planned inline before.
+         */
+        double computeNanosPerInput() {
+            double value = compute.value();
+            return value == 0 ? Double.POSITIVE_INFINITY : value;
+        }
+    }
+
+    /**
+     * Exponentially weighted moving average, updated without locking.
+     */
+    private static final class Average {
+
+        private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(0));
+
+        void add(double sample) {
+            bits.getAndUpdate(current -> {
+                double value = Double.longBitsToDouble(current);
+                return Double.doubleToRawLongBits(value == 0 ? sample : value + SMOOTHING * (sample - value));
+            });
+        }
+
+        double value() {
+            return Double.longBitsToDouble(bits.get());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package se.tele2.calculator.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultKey;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+/**
+ * Does the calculations and builds the keys results are stored under, shared by the blocking and the reactive services.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class Calculator {
+
+    private ParallelReducer parallelReducer;
+
+    /**
+     * @throws InvalidInputsException for {@link Operation#EXPRESSION}, whose results only /expression evaluates and
+     *                                stores, but which binds like the other operations wherever an operation is taken
+     */
+    public static void checkArithmetic(Operation operation) {
+        if (operation == Operation.EXPRESSION) {
+            throw new InvalidInputsException("Expressions are only evaluated by /expression");
+        }
+    }
+
+    public double calculate(double[] inputs, Operation operation) {
+        if (inputs.length == 0) {
+            log.error("No number to do the operation");
+            throw new EmptyInputsException("No number to do the operation");
+        }
+        return switch (operation) {
+            case ADDITION, MULTIPLICATION -> parallelReducer.reduce(inputs, operation);
+            case SUBTRACTION, DIVISION -> {
+                checkDivisors(inputs, 1, inputs.length, operation);
+                yield fold(inputs[0], inputs, 1, inputs.length, operation);
+            }
+            case EXPRESSION -> throw new InvalidInputsException("Expressions are only evaluated by /expression");
+        };
+    }
+
+    /**
+     * Calculates one row of a columnar request, the inputs from {@code from} to {@code to}.
+     */
+    public double calculate(double[] values, int from, int to, Operation operation) {
+        if (from == to) {
+            throw new EmptyInputsException("No number to do the operation");
+        }
+        return switch (operation) {
+            case ADDITION, MULTIPLICATION -> parallelReducer.reduceRange(values, from, to, operation);
+            case SUBTRACTION, DIVISION -> {
+                checkDivisors(values, from + 1, to, operation);
+                yield fold(values[from], values, from + 1, to, operation);
+            }
+            case EXPRESSION -> throw new InvalidInputsException("Expressions are only evaluated by /expression");
+        };
+    }
+
+    /**
+     * Addition and multiplication do not depend on the order of the inputs, so their inputs are sorted in place.
+     * That way equal inputs share one key, and they are also reduced in the same order, giving the same result.
+     * Calculations that are not stored go through here as well, or their result would depend on the order the
+     * inputs came in.
+     */
+    public void canonicalOrder(double[] inputs, Operation operation) {
+        if (operation == ADDITION || operation == MULTIPLICATION) {
+            Arrays.sort(inputs);
+        }
+    }
+
+    /**
+     * Puts the inputs in {@link #canonicalOrder canonical order} and builds the key their result is stored under.
+     */
+    public ResultKey key(double[] inputs, Operation operation) {
+        canonicalOrder(inputs, operation);
+        return new ResultKey(CanonicalInputs.of(inputs), operation);
+    }
+
+    public double[] toArray(List<Double> inputs) {
+        return inputs.stream()
+                .mapToDouble(Double::doubleValue)
+                .toArray();
+    }
+
+    private static void checkDivisors(double[] inputs, int from, int to, Operation operation) {
+        if (operation == DIVISION && ReductionKernel.containsZero(inputs, from, to)) {
+            throw new ArithmeticException("Divide by zero.");
+        }
+    }
+
+    /**
+     * Subtracts or divides the inputs from left to right, starting from {@code value}.
+     */
+    private static double fold(double value, double[] inputs, int from, int to, Operation operation) {
+        if (operation == DIVISION) {
+            for (int i = from; i < to; i++)
+                value /= inputs[i];
+        } else {
+            for (int i = from; i < to; i++)
+                value -= inputs[i];
+        }
+        return value;
+    }
+}
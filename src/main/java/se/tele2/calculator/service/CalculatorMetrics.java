@@ -0,0 +1,89 @@
+package se.tele2.calculator.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.model.Operation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the calculations, registered once per operation so recording them on the request path does not look
+ * anything up or allocate.
+ * <ul>
+ *     <li>{@code calculator.lookup}, {@code calculator.compute} and {@code calculator.persist}: time spent looking for a
+ *     stored result, calculating a new one and saving it</li>
+ *     <li>{@code calculator.results}: results by {@code outcome}, {@code reused} when a stored result was found and
+ *     {@code computed} when it was calculated</li>
+ *     <li>{@code calculator.inputs}: number of inputs per calculation</li>
+ * </ul>
+ */
+@Component
+public class CalculatorMetrics {
+
+    private final Map<Operation, Timer> lookup = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> compute = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> persist = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> reused = new EnumMap<>(Operation.class);
+    private final Map<Operation, Counter> computed = new EnumMap<>(Operation.class);
+    private final Map<Operation, DistributionSummary> inputs = new EnumMap<>(Operation.class);
+
+    public CalculatorMetrics(MeterRegistry registry) {
+        for (Operation operation : Operation.values()) {
+            String tag = operation.name();
+            lookup.put(operation, timer("calculator.lookup", "Looking up a stored result", tag, registry));
+            compute.put(operation, timer("calculator.compute", "Calculating a result", tag, registry));
+            persist.put(operation, timer("calculator.persist", "Saving a calculated result", tag, registry));
+            reused.put(operation, Counter.builder("calculator.results")
+                    .description("Results by whether they were found stored or calculated")
+                    .tags("operation", tag, "outcome", "reused")
+                    .register(registry));
+            computed.put(operation, Counter.builder("calculator.results")
+                    .description("Results by whether they were found stored or calculated")
+                    .tags("operation", tag, "outcome", "computed")
+                    .register(registry));
+            inputs.put(operation, DistributionSummary.builder("calculator.inputs")
+                    .description("Number of inputs per calculation")
+                    .baseUnit("inputs")
+                    .tag("operation", tag)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    public void lookup(Operation operation, long nanos) {
+        lookup.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void compute(Operation operation, long nanos) {
+        compute.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void persist(Operation operation, long nanos) {
+        persist.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void reused(Operation operation) {
+        reused.get(operation).increment();
+    }
+
+    public void computed(Operation operation) {
+        computed.get(operation).increment();
+    }
+
+    public void inputs(Operation operation, int count) {
+        inputs.get(operation).record(count);
+    }
+
+    private static Timer timer(String name, String description, String operation, MeterRegistry registry) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
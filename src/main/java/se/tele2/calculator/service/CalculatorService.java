@@ -2,69 +2,190 @@ package se.tele2.calculator.service;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.InvalidInputsException;
 import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.exception.OverloadedException;
+import se.tele2.calculator.model.BatchItem;
+import se.tele2.calculator.model.BatchItemResponse;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
 import se.tele2.calculator.model.InputRequest;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
 import se.tele2.calculator.model.ResultResponse;
-import se.tele2.calculator.repository.DataBaseDataStore;
+import se.tele2.calculator.repository.DataStore;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.OptionalDouble;
-import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
-import java.util.stream.Stream;
-
-import static se.tele2.calculator.model.Operation.ADDITION;
-import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class CalculatorService {
 
-    private DataBaseDataStore dataStore;
+    private DataStore dataStore;
+    private Calculator calculator;
+    private SingleFlight<ResultKey, Result> calculations;
+    private CalculatorMetrics metrics;
+    private CalculationBudgets budgets;
+    private CalculationPlanner planner;
 
+    /**
+     * Concurrent requests for the same inputs and operation that are not stored yet are calculated once:
+     * one request calculates and saves the result while the others wait for it.
+     * <p>
+     * Calculating a result that is not stored takes room for its inputs in the computation budget. Calculations the
+     * {@link CalculationPlanner planner} finds cheaper than a lookup are calculated without the store.
+     *
+     * @throws OverloadedException when the inputs do not fit the computation budget
+     */
     public ResultResponse calculate(InputRequest request, Operation operation) {
-        String inputs = "";
-        if (List.of(ADDITION, MULTIPLICATION).contains(operation)) {
-            inputs = getInputs(request.inputs(), true);
+        double[] inputs = request.inputs();
+        metrics.inputs(operation, inputs.length);
+        if (planner.plan(operation, inputs.length) == CalculationPlanner.Plan.INLINE) {
+            calculator.canonicalOrder(inputs, operation);
+            double result = timedCalculation(inputs, operation);
+            metrics.computed(operation);
+            return new ResultResponse(result);
+        }
+        long start = System.nanoTime();
+        ResultKey key = calculator.key(inputs, operation);
+        Optional<Result> existing = lookup(key);
+        planner.lookedUp(operation, System.nanoTime() - start);
+        if (existing.isPresent()) {
+            return new ResultResponse(reuse(existing.get()).getResult());
         }
-        final String fInputs = inputs.length() > 0 ? inputs : getInputs(request.inputs(), false);
-        Result result = dataStore.findByNumbersAndOperation(fInputs, operation)
-                .orElseGet(() -> {
-                    log.info("Calculating {} operation for {}", operation.name(), fInputs);
-                    double aDouble = doCalculation(request, operation);
-                    return dataStore.save(Result.builder()
-                            .operation(operation)
-                            .result(aDouble)
-                            .numbers(fInputs)
-                            .build());
-                });
-        return new ResultResponse(result.getResult());
+        try (ConcurrencyLimiter.Permit computationPermit = budgets.computations().acquire(inputs.length)) {
+            return new ResultResponse(calculateOnce(key, () -> timedCalculation(inputs, operation)).getResult());
+        }
+    }
+
+    private double timedCalculation(double[] inputs, Operation operation) {
+        long start = System.nanoTime();
+        double result = calculator.calculate(inputs, operation);
+        planner.calculated(operation, inputs.length, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Returns the result stored under the key, or calculates and saves it the same way {@link #calculate} does.
+     */
+    Result resolve(ResultKey key, DoubleSupplier calculation) {
+        Optional<Result> existing = lookup(key);
+        return existing.isPresent() ? reuse(existing.get()) : calculateOnce(key, calculation);
     }
 
-    private Double doCalculation(InputRequest request, Operation operation) {
-        DoubleStream doubleStream = request.inputs()
-                .stream()
-                .mapToDouble(Double::doubleValue);
-        OptionalDouble optionalDouble = OptionalDouble.empty();
-        switch (operation) {
-            case ADDITION -> optionalDouble = doubleStream.reduce(Double::sum);
-            case SUBTRACTION -> optionalDouble = doubleStream.reduce((e1, e2) -> e1 - e2);
-            case MULTIPLICATION -> optionalDouble = doubleStream.reduce((e1, e2) -> e1 * e2);
-            case DIVISION -> optionalDouble = doubleStream.reduce((dividend, divisor) -> {
-                if (divisor == 0)
-                    throw new ArithmeticException("Divide by zero.");
-                return dividend / divisor;
-            });
+    private Result calculateOnce(ResultKey key, DoubleSupplier calculation) {
+        return calculations.execute(key, () -> lookup(key)
+                .map(this::reuse)
+                .orElseGet(() -> calculateAndSave(key, calculation)));
+    }
+
+    private Optional<Result> lookup(ResultKey key) {
+        long start = System.nanoTime();
+        Optional<Result> result = dataStore.findByNumbersAndOperation(key.numbers(), key.operation());
+        metrics.lookup(key.operation(), System.nanoTime() - start);
+        return result;
+    }
+
+    private Result reuse(Result result) {
+        metrics.reused(result.getOperation());
+        return result;
+    }
+
+    private Result calculateAndSave(ResultKey key, DoubleSupplier calculation) {
+        log.info("Calculating {} operation for {}", key.operation().name(), key.numbers());
+        long start = System.nanoTime();
+        double aDouble = calculation.getAsDouble();
+        long calculated = System.nanoTime();
+        metrics.compute(key.operation(), calculated - start);
+        metrics.computed(key.operation());
+        Result saved = dataStore.save(Result.builder()
+                .operation(key.operation())
+                .result(aDouble)
+                .numbers(key.numbers())
+                .build());
+        metrics.persist(key.operation(), System.nanoTime() - calculated);
+        return saved;
+    }
+
+    /**
+     * Resolves every item that was calculated before with a single lookup and stores the new results in one batch.
+     * Items that cannot be calculated get the same error the single item endpoints would respond with.
+     * <p>
+     * The inputs of the items that are not stored take room in the computation budget.
+     *
+     * @throws OverloadedException when the inputs do not fit the computation budget
+     */
+    public BatchResponse calculateBatch(BatchRequest request) {
+        List<BatchItem> items = request.items();
+        List<double[]> inputs = items.stream()
+                .map(item -> calculator.toArray(item.inputs()))
+                .toList();
+        List<ResultKey> keys = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            keys.add(calculator.key(inputs.get(i), items.get(i).operation()));
+        }
+        Map<ResultKey, Result> results = new HashMap<>();
+        dataStore.findAllByKeys(keys).forEach(result -> results.put(result.key(), result));
+
+        long missing = 0;
+        for (int i = 0; i < items.size(); i++) {
+            if (!results.containsKey(keys.get(i))) {
+                missing += inputs.get(i).length;
+            }
+        }
+        if (missing == 0) {
+            return calculateMissing(items, inputs, keys, results);
+        }
+        try (ConcurrencyLimiter.Permit computationPermit = budgets.computations().acquire(missing)) {
+            return calculateMissing(items, inputs, keys, results);
         }
-        return optionalDouble.orElseThrow(() -> {
-            log.error("No number to do the operation");
-           throw  new EmptyInputsException("No number to do the operation");
-        });
+    }
+
+    private BatchResponse calculateMissing(List<BatchItem> items, List<double[]> inputs, List<ResultKey> keys,
+                                           Map<ResultKey, Result> results) {
+        Map<ResultKey, Result> calculated = new LinkedHashMap<>();
+        List<BatchItemResponse> responses = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            ResultKey key = keys.get(i);
+            metrics.inputs(item.operation(), inputs.get(i).length);
+            Result result = results.containsKey(key) ? reuse(results.get(key)) : calculated.get(key);
+            if (result == null) {
+                try {
+                    result = Result.builder()
+                            .operation(item.operation())
+                            .result(calculator.calculate(inputs.get(i), item.operation()))
+                            .numbers(key.numbers())
+                            .build();
+                } catch (ArithmeticException | EmptyInputsException e) {
+                    responses.add(BatchItemResponse.of(new ErrorResponse(HttpStatus.FORBIDDEN, e.getMessage())));
+                    continue;
+                } catch (InvalidInputsException e) {
+                    responses.add(BatchItemResponse.of(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage())));
+                    continue;
+                }
+                metrics.computed(item.operation());
+                calculated.put(key, result);
+            }
+            responses.add(BatchItemResponse.of(result.getResult()));
+        }
+        if (!calculated.isEmpty()) {
+            log.info("Calculated {} of {} batch items", calculated.size(), items.size());
+            dataStore.saveAll(new ArrayList<>(calculated.values()));
+        }
+        return new BatchResponse(responses);
     }
 
     public ResultResponse getExistingResultById(int id) {
@@ -74,22 +195,9 @@ public class CalculatorService {
     }
 
     public ResultResponse getExistingResultByInputsAndOperation(List<Double> inputs, Operation operation) {
-        String numbers;
-        switch (operation) {
-            case ADDITION, MULTIPLICATION -> numbers = getInputs(inputs, true);
-            default -> numbers = getInputs(inputs, false);
-        }
-        return dataStore.findByNumbersAndOperation(numbers, operation)
+        ResultKey key = calculator.key(calculator.toArray(inputs), operation);
+        return dataStore.findByNumbersAndOperation(key.numbers(), key.operation())
                 .map(result -> new ResultResponse(result.getResult()))
                 .orElseThrow(() -> new NotFoundException("Result does not exist"));
     }
-
-    private String getInputs(List<Double> inputs, boolean sort) {
-        Stream<Double> stream = inputs.stream();
-        if (sort) {
-            stream = stream.sorted();
-        }
-        return stream.map(Object::toString)
-                .collect(Collectors.joining(","));
-    }
 }
@@ -0,0 +1,36 @@
+package se.tele2.calculator.service;
+
+/**
+ * Builds the canonical comma separated form of inputs that results are stored under.
+ * The text is written into a buffer reused per thread, so the returned string is the only allocation.
+ */
+final class CanonicalInputs {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private CanonicalInputs() {
+    }
+
+    static String of(double[] inputs) {
+        return of(inputs, 0, inputs.length);
+    }
+
+    static String of(double[] inputs, int from, int to) {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                buffer.append(',');
+            }
+            buffer.append(inputs[i]);
+        }
+        String numbers = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return numbers;
+    }
+}
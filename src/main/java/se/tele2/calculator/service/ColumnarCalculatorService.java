@@ -0,0 +1,107 @@
+package se.tele2.calculator.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.ColumnarError;
+import se.tele2.calculator.model.ColumnarRequest;
+import se.tele2.calculator.model.ColumnarResponse;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+import se.tele2.calculator.repository.DataStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+/**
+ * Applies one operation to every row of a columnar request. All rows are calculated first, one after the other over
+ * the one array of values, and only then looked up and saved, in chunks of {@value #CHUNK_SIZE} rows. Rows of
+ * addition and multiplication are sorted in place first, so they give the same results as the single endpoints.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class ColumnarCalculatorService {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private DataStore dataStore;
+    private Calculator calculator;
+
+    /**
+     * @param persist whether new results are saved like results of the single endpoints, or only returned
+     */
+    public ColumnarResponse calculate(ColumnarRequest request, Operation operation, boolean persist) {
+        double[] values = request.values();
+        int[] offsets = request.offsets();
+        Calculator.checkArithmetic(operation);
+        validate(values, offsets);
+        boolean sort = operation == ADDITION || operation == MULTIPLICATION;
+        double[] results = new double[request.rows()];
+        BitSet failed = new BitSet();
+        List<ColumnarError> errors = new ArrayList<>();
+        for (int row = 0; row < results.length; row++) {
+            int from = offsets[row];
+            int to = offsets[row + 1];
+            if (sort) {
+                Arrays.sort(values, from, to);
+            }
+            try {
+                results[row] = calculator.calculate(values, from, to, operation);
+            } catch (ArithmeticException | EmptyInputsException e) {
+                results[row] = Double.NaN;
+                failed.set(row);
+                errors.add(new ColumnarError(row, new ErrorResponse(HttpStatus.FORBIDDEN, e.getMessage())));
+            }
+        }
+        if (persist) {
+            save(values, offsets, results, failed, operation);
+        }
+        return new ColumnarResponse(results, errors);
+    }
+
+    private void save(double[] values, int[] offsets, double[] results, BitSet failed, Operation operation) {
+        Map<ResultKey, Result> calculated = new LinkedHashMap<>();
+        for (int row = failed.nextClearBit(0); row < results.length; row = failed.nextClearBit(row + 1)) {
+            ResultKey key = new ResultKey(CanonicalInputs.of(values, offsets[row], offsets[row + 1]), operation);
+            calculated.putIfAbsent(key, Result.builder()
+                    .operation(operation)
+                    .result(results[row])
+                    .numbers(key.numbers())
+                    .build());
+        }
+        List<ResultKey> keys = new ArrayList<>(calculated.keySet());
+        for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+            dataStore.findAllByKeys(keys.subList(from, Math.min(from + CHUNK_SIZE, keys.size())))
+                    .forEach(stored -> calculated.remove(stored.key()));
+        }
+        List<Result> created = new ArrayList<>(calculated.values());
+        for (int from = 0; from < created.size(); from += CHUNK_SIZE) {
+            dataStore.saveAll(new ArrayList<>(created.subList(from, Math.min(from + CHUNK_SIZE, created.size()))));
+        }
+        log.info("Saved {} new results of {} rows", created.size(), results.length);
+    }
+
+    private static void validate(double[] values, int[] offsets) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != values.length) {
+            throw new InvalidInputsException("Offsets must start at 0 and end at the number of values");
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            if (offsets[i] < offsets[i - 1]) {
+                throw new InvalidInputsException("Offsets must not decrease, offset " + i + " does");
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package se.tele2.calculator.service;
+
+import se.tele2.calculator.exception.InvalidInputsException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link Expression} compiled to a postfix program for a stack machine. Evaluating it walks flat arrays instead of
+ * the tree, and its only allocation is the operand stack, sized for the program when it is compiled.
+ */
+final class CompiledExpression {
+
+    private static final byte CONSTANT = 0;
+    private static final byte VARIABLE = 1;
+    private static final byte ADD = 2;
+    private static final byte SUBTRACT = 3;
+    private static final byte MULTIPLY = 4;
+    private static final byte DIVIDE = 5;
+    private static final byte NEGATE = 6;
+
+    private final byte[] instructions;
+    private final double[] constants;
+    private final int[] slots;
+    private final int stackSize;
+    private final List<String> variables;
+    private final String canonical;
+
+    private CompiledExpression(byte[] instructions, double[] constants, int[] slots, int stackSize,
+                               List<String> variables, String canonical) {
+        this.instructions = instructions;
+        this.constants = constants;
+        this.slots = slots;
+        this.stackSize = stackSize;
+        this.variables = variables;
+        this.canonical = canonical;
+    }
+
+    static CompiledExpression of(Expression expression, List<String> variables) {
+        Compiler compiler = new Compiler();
+        compiler.emit(expression);
+        StringBuilder canonical = new StringBuilder();
+        expression.appendCanonical(canonical);
+        return new CompiledExpression(
+                Arrays.copyOf(compiler.instructions, compiler.length),
+                Arrays.copyOf(compiler.constants, compiler.length),
+                Arrays.copyOf(compiler.slots, compiler.length),
+                compiler.maxDepth,
+                List.copyOf(variables),
+                canonical.toString());
+    }
+
+    /**
+     * Variable names in slot order.
+     */
+    List<String> variables() {
+        return variables;
+    }
+
+    String canonical() {
+        return canonical;
+    }
+
+    /**
+     * Orders the values of the variables by slot. Values of variables the expression does not use are ignored.
+     *
+     * @throws InvalidInputsException when a variable has no value
+     */
+    double[] bind(Map<String, Double> bindings) {
+        double[] values = new double[variables.size()];
+        for (int slot = 0; slot < values.length; slot++) {
+            Double value = bindings.get(variables.get(slot));
+            if (value == null) {
+                throw new InvalidInputsException("No value for variable " + variables.get(slot));
+            }
+            values[slot] = value;
+        }
+        return values;
+    }
+
+    /**
+     * @param values values of the variables in slot order
+     * @throws ArithmeticException when dividing by zero
+     */
+    double evaluate(double[] values) {
+        double[] stack = new double[stackSize];
+        int top = -1;
+        for (int i = 0; i < instructions.length; i++) {
+            switch (instructions[i]) {
+                case CONSTANT -> stack[++top] = constants[i];
+                case VARIABLE -> stack[++top] = values[slots[i]];
+                case ADD -> {
+                    top--;
+                    stack[top] += stack[top + 1];
+                }
+                case SUBTRACT -> {
+                    top--;
+                    stack[top] -= stack[top + 1];
+                }
+                case MULTIPLY -> {
+                    top--;
+                    stack[top] *= stack[top + 1];
+                }
+                case DIVIDE -> {
+                    double divisor = stack[top--];
+                    if (divisor == 0)
+                        throw new ArithmeticException("Divide by zero.");
+                    stack[top] /= divisor;
+                }
+                case NEGATE -> stack[top] = -stack[top];
+                default -> throw new IllegalStateException("Unknown instruction " + instructions[i]);
+            }
+        }
+        return stack[0];
+    }
+
+    private static final class Compiler {
+
+        private byte[] instructions = new byte[16];
+        private double[] constants = new double[16];
+        private int[] slots = new int[16];
+        private int length;
+        private int depth;
+        private int maxDepth;
+
+        void emit(Expression expression) {
+            if (expression instanceof Expression.Constant constant) {
+                add(CONSTANT, constant.value(), 0);
+                push();
+            } else if (expression instanceof Expression.Variable variable) {
+                add(VARIABLE, 0, variable.slot());
+                push();
+            } else if (expression instanceof Expression.Negation negation) {
+                emit(negation.operand());
+                add(NEGATE, 0, 0);
+            } else if (expression instanceof Expression.Binary binary) {
+                emit(binary.left());
+                emit(binary.right());
+                add(switch (binary.operator()) {
+                    case '+' -> ADD;
+                    case '-' -> SUBTRACT;
+                    case '*' -> MULTIPLY;
+                    default -> DIVIDE;
+                }, 0, 0);
+                depth--;
+            }
+        }
+
+        private void push() {
+            maxDepth = Math.max(maxDepth, ++depth);
+        }
+
+        private void add(byte instruction, double constant, int slot) {
+            if (length == instructions.length) {
+                instructions = Arrays.copyOf(instructions, length * 2);
+                constants = Arrays.copyOf(constants, length * 2);
+                slots = Arrays.copyOf(slots, length * 2);
+            }
+            instructions[length] = instruction;
+            constants[length] = constant;
+            slots[length] = slot;
+            length++;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package se.tele2.calculator.service;
+
+import se.tele2.calculator.exception.OverloadedException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the inputs of the requests in progress, so a request with a million inputs takes the room of a thousand
+ * requests with a thousand inputs. A request that does not fit is rejected right away instead of waiting for a thread.
+ * <p>
+ * The limit adapts to the latency seen, additive increase and multiplicative decrease: while the limit is used and
+ * requests take about as long as the fastest ones of their size, it grows by the minimum limit per limit of inputs
+ * completed. When their average latency gets more than {@code tolerance} times the fastest it is multiplied by
+ * {@code backoff}, once per round of requests. Latencies are compared per power of two of inputs, a request with many
+ * inputs is not expected to be as fast as one with a few. The fastest latency of a size slowly moves towards the
+ * latencies seen, so the limit recovers on a machine that got slower for good.
+ * <p>
+ * A request is admitted when nothing is in progress however many inputs it has, so a request larger than the limit
+ * runs alone instead of being rejected forever.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.1;
+    private static final double DRIFT = 0.001;
+
+    private final String name;
+    private final double minimumLimit;
+    private final double maximumLimit;
+    private final double tolerance;
+    private final double backoff;
+    private final LongSupplier clock;
+    private final double[] fastest = new double[Long.SIZE];
+    private final double[] average = new double[Long.SIZE];
+    private final LongAdder rejected = new LongAdder();
+    private double limit;
+    private long inFlight;
+    private long lastBackoff = Long.MIN_VALUE;
+    private double latency;
+
+    /**
+     * @param name      what is limited, used in the message of a rejection
+     * @param tolerance average latency relative to the fastest from which the limit shrinks
+     * @param backoff   factor the limit is multiplied by when it shrinks
+     */
+    public ConcurrencyLimiter(String name, long initialLimit, long minimumLimit, long maximumLimit, double tolerance,
+                              double backoff) {
+        this(name, initialLimit, minimumLimit, maximumLimit, tolerance, backoff, System::nanoTime);
+    }
+
+    ConcurrencyLimiter(String name, long initialLimit, long minimumLimit, long maximumLimit, double tolerance,
+                       double backoff, LongSupplier clock) {
+        this.name = name;
+        this.limit = Math.min(Math.max(initialLimit, minimumLimit), maximumLimit);
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.tolerance = tolerance;
+        this.backoff = backoff;
+        this.clock = clock;
+    }
+
+    /**
+     * A limiter that admits everything.
+     */
+    public static ConcurrencyLimiter unlimited(String name) {
+        return new ConcurrencyLimiter(name, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, 1, 1);
+    }
+
+    /**
+     * Takes room for the inputs of a request until the permit is closed.
+     *
+     * @throws OverloadedException when the request does not fit next to the requests in progress
+     */
+    public synchronized Permit acquire(long inputs) {
+        long weight = Math.max(inputs, 1);
+        if (inFlight > 0 && weight > limit - inFlight) {
+            rejected.increment();
+            throw new OverloadedException(name + " are over their limit of " + (long) limit + " inputs in progress",
+                    retryAfterSeconds());
+        }
+        inFlight += weight;
+        return new Permit(weight, inFlight, clock.getAsLong());
+    }
+
+    public synchronized long limit() {
+        return (long) limit;
+    }
+
+    public synchronized long inFlight() {
+        return inFlight;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private synchronized void release(Permit permit) {
+        long now = clock.getAsLong();
+        double elapsed = Math.max(now - permit.start, 1);
+        inFlight -= permit.weight;
+        latency = latency == 0 ? elapsed : latency + SMOOTHING * (elapsed - latency);
+
+        int size = 63 - Long.numberOfLeadingZeros(permit.weight);
+        double best = fastest[size];
+        if (best == 0) {
+            best = elapsed;
+            average[size] = elapsed;
+        }
+        fastest[size] = elapsed < best ? elapsed : best + DRIFT * (elapsed - best);
+        average[size] += SMOOTHING * (elapsed - average[size]);
+
+        if (average[size] > tolerance * best) {
+            if (permit.start > lastBackoff) {
+                limit = Math.max(minimumLimit, limit * backoff);
+                lastBackoff = now;
+            }
+        } else if (2 * permit.inFlight >= limit) {
+            limit = Math.min(maximumLimit, limit + minimumLimit * permit.weight / limit);
+        }
+    }
+
+    /**
+     * The average latency, the time it takes for the requests in progress to make room.
+     */
+    private long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(latency / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final long weight;
+        private final long inFlight;
+        private final long start;
+
+        private Permit(long weight, long inFlight, long start) {
+            this.weight = weight;
+            this.inFlight = inFlight;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+}
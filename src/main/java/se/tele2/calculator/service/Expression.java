@@ -0,0 +1,47 @@
+package se.tele2.calculator.service;
+
+/**
+ * Syntax tree of an arithmetic expression. Variables are numbered in the order they first appear, so expressions that
+ * only differ in the names of their variables or in redundant parentheses and whitespace share one canonical form.
+ */
+sealed interface Expression {
+
+    /**
+     * Appends the fully parenthesized form without spaces, with variables written as {@code $slot}.
+     */
+    void appendCanonical(StringBuilder canonical);
+
+    record Constant(double value) implements Expression {
+        @Override
+        public void appendCanonical(StringBuilder canonical) {
+            canonical.append(value);
+        }
+    }
+
+    record Variable(String name, int slot) implements Expression {
+        @Override
+        public void appendCanonical(StringBuilder canonical) {
+            canonical.append('$').append(slot);
+        }
+    }
+
+    record Negation(Expression operand) implements Expression {
+        @Override
+        public void appendCanonical(StringBuilder canonical) {
+            canonical.append("(-");
+            operand.appendCanonical(canonical);
+            canonical.append(')');
+        }
+    }
+
+    record Binary(char operator, Expression left, Expression right) implements Expression {
+        @Override
+        public void appendCanonical(StringBuilder canonical) {
+            canonical.append('(');
+            left.appendCanonical(canonical);
+            canonical.append(operator);
+            right.appendCanonical(canonical);
+            canonical.append(')');
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package se.tele2.calculator.service;
+
+import se.tele2.calculator.exception.InvalidInputsException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive descent parser for expressions of numbers, variables, {@code + - * /}, unary minus and parentheses:
+ * <pre>
+ * expression = term { ("+" | "-") term }
+ * term       = factor { ("*" | "/") factor }
+ * factor     = ("-" | "+") factor | number | variable | "(" expression ")"
+ * </pre>
+ */
+final class ExpressionParser {
+
+    static final int MAX_DEPTH = 256;
+
+    private final String text;
+    private final List<String> variables = new ArrayList<>();
+    private int position;
+    private int depth;
+
+    private ExpressionParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * @throws InvalidInputsException when the text is not a valid expression
+     */
+    static CompiledExpression compile(String text) {
+        ExpressionParser parser = new ExpressionParser(text);
+        Expression expression = parser.expression();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw parser.unexpected();
+        }
+        return CompiledExpression.of(expression, parser.variables);
+    }
+
+    private Expression expression() {
+        Expression left = term();
+        for (char operator = next(); operator == '+' || operator == '-'; operator = next()) {
+            position++;
+            left = new Expression.Binary(operator, left, term());
+        }
+        return left;
+    }
+
+    private Expression term() {
+        Expression left = factor();
+        for (char operator = next(); operator == '*' || operator == '/'; operator = next()) {
+            position++;
+            left = new Expression.Binary(operator, left, factor());
+        }
+        return left;
+    }
+
+    private Expression factor() {
+        if (++depth > MAX_DEPTH) {
+            throw new InvalidInputsException("Expression is nested deeper than " + MAX_DEPTH + " levels");
+        }
+        try {
+            char c = next();
+            if (c == '-') {
+                position++;
+                return new Expression.Negation(factor());
+            }
+            if (c == '+') {
+                position++;
+                return factor();
+            }
+            if (c == '(') {
+                position++;
+                Expression expression = expression();
+                if (next() != ')') {
+                    throw unexpected();
+                }
+                position++;
+                return expression;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return number();
+            }
+            if (Character.isLetter(c) || c == '_') {
+                return variable();
+            }
+            throw unexpected();
+        } finally {
+            depth--;
+        }
+    }
+
+    private Expression number() {
+        int start = position;
+        while (position < text.length() && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+            position++;
+        }
+        if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            position++;
+            if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) {
+                position++;
+            }
+            while (position < text.length() && Character.isDigit(text.charAt(position))) {
+                position++;
+            }
+        }
+        try {
+            return new Expression.Constant(Double.parseDouble(text.substring(start, position)));
+        } catch (NumberFormatException e) {
+            throw new InvalidInputsException("Invalid number '" + text.substring(start, position) + "' at position " + start);
+        }
+    }
+
+    private Expression variable() {
+        int start = position;
+        while (position < text.length() && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+            position++;
+        }
+        String name = text.substring(start, position);
+        int slot = variables.indexOf(name);
+        if (slot < 0) {
+            slot = variables.size();
+            variables.add(name);
+        }
+        return new Expression.Variable(name, slot);
+    }
+
+    private char next() {
+        skipWhitespace();
+        return position < text.length() ? text.charAt(position) : 0;
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private InvalidInputsException unexpected() {
+        return position < text.length()
+                ? new InvalidInputsException("Unexpected '" + text.charAt(position) + "' at position " + position)
+                : new InvalidInputsException("Unexpected end of expression");
+    }
+}
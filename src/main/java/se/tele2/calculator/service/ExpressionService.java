@@ -0,0 +1,50 @@
+package se.tele2.calculator.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import se.tele2.calculator.config.ExpressionProperties;
+import se.tele2.calculator.model.ExpressionRequest;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+import se.tele2.calculator.model.ResultResponse;
+
+import java.util.Map;
+
+import static se.tele2.calculator.model.Operation.EXPRESSION;
+
+/**
+ * Evaluates arithmetic expressions with values bound to their variables. Expressions are compiled once per expression
+ * text and kept in a plan cache, so a repeated expression is not parsed again. Evaluations are stored as results of
+ * the {@code EXPRESSION} operation under the canonical form of the expression followed by the values in slot order,
+ * e.g. {@code (($0+$1)*$2);1.0,2.0,3.0}, and are reused like the results of the other operations.
+ */
+@Service
+public class ExpressionService {
+
+    private final CalculatorService calculatorService;
+    private final CalculatorMetrics metrics;
+    private final Cache<String, CompiledExpression> plans;
+
+    public ExpressionService(CalculatorService calculatorService, CalculatorMetrics metrics, ExpressionProperties properties,
+                             MeterRegistry registry) {
+        this.calculatorService = calculatorService;
+        this.metrics = metrics;
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(properties.planCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, plans, "expressions");
+    }
+
+    public ResultResponse evaluate(ExpressionRequest request) {
+        CompiledExpression expression = plans.get(request.expression(), ExpressionParser::compile);
+        double[] values = expression.bind(request.variables() != null ? request.variables() : Map.of());
+        metrics.inputs(EXPRESSION, values.length);
+        ResultKey key = new ResultKey(expression.canonical() + ';' + CanonicalInputs.of(values), EXPRESSION);
+        Result result = calculatorService.resolve(key, () -> expression.evaluate(values));
+        return new ResultResponse(result.getResult());
+    }
+}
@@ -0,0 +1,96 @@
+package se.tele2.calculator.service;
+
+import se.tele2.calculator.model.Operation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Reduces the inputs of the associative operations, addition and multiplication, as a tree.
+ * The shape of the tree only depends on the number of inputs: ranges are halved until they are at most
+ * {@link #LEAF_SIZE} long, leaves are folded by the {@link ReductionKernel} and halves are combined left with right.
+ * Whether the tree is evaluated on the caller thread or on the pool, and with how many threads, never changes the
+ * result, so a recalculated result is always bit-identical to the stored one.
+ */
+public class ParallelReducer {
+
+    static final int LEAF_SIZE = 4096;
+
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    public ParallelReducer(int threshold, int parallelism) {
+        this.threshold = threshold;
+        this.pool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("calculator-reduce-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    public double reduce(double[] inputs, Operation operation) {
+        if (operation != Operation.ADDITION && operation != Operation.MULTIPLICATION) {
+            throw new IllegalArgumentException(operation + " is not associative");
+        }
+        if (inputs.length < threshold) {
+            return reduce(inputs, 0, inputs.length, operation);
+        }
+        return pool.invoke(new ReduceTask(inputs, 0, inputs.length, operation));
+    }
+
+    /**
+     * Reduces a range of the inputs on the calling thread, as the same tree as {@link #reduce(double[], Operation)}
+     * would reduce an array holding only that range.
+     */
+    public double reduceRange(double[] inputs, int from, int to, Operation operation) {
+        if (operation != Operation.ADDITION && operation != Operation.MULTIPLICATION) {
+            throw new IllegalArgumentException(operation + " is not associative");
+        }
+        return reduce(inputs, from, to, operation);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static double reduce(double[] inputs, int from, int to, Operation operation) {
+        if (to - from <= LEAF_SIZE) {
+            return ReductionKernel.fold(inputs, from, to, operation);
+        }
+        int middle = from + (to - from) / 2;
+        return combine(reduce(inputs, from, middle, operation), reduce(inputs, middle, to, operation), operation);
+    }
+
+    private static double combine(double left, double right, Operation operation) {
+        return operation == Operation.ADDITION ? left + right : left * right;
+    }
+
+    private static class ReduceTask extends RecursiveTask<Double> {
+
+        private final double[] inputs;
+        private final int from;
+        private final int to;
+        private final Operation operation;
+
+        ReduceTask(double[] inputs, int from, int to, Operation operation) {
+            this.inputs = inputs;
+            this.from = from;
+            this.to = to;
+            this.operation = operation;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= LEAF_SIZE) {
+                return ReductionKernel.fold(inputs, from, to, operation);
+            }
+            int middle = from + (to - from) / 2;
+            ReduceTask left = new ReduceTask(inputs, from, middle, operation);
+            ReduceTask right = new ReduceTask(inputs, middle, to, operation);
+            left.fork();
+            double rightResult = right.compute();
+            return combine(left.join(), rightResult, operation);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package se.tele2.calculator.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.model.BatchItem;
+import se.tele2.calculator.model.BatchItemResponse;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.repository.ReactiveDataStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.REACTIVE;
+
+/**
+ * Non-blocking counterpart of {@link CalculatorService}, used when the service runs on the reactive stack.
+ * <p>
+ * Sorting and writing the keys and calculating take CPU time in proportion to the inputs, and large calculations
+ * block on the {@link ParallelReducer fork/join pool}. That work runs on the calculation scheduler, so the event loops
+ * keep serving the other connections. Unlike {@link CalculatorService} there is no result cache, single flight,
+ * computation budget or planner here, and no calculation metrics are recorded.
+ */
+@Service
+@ConditionalOnWebApplication(type = REACTIVE)
+@AllArgsConstructor
+@Slf4j
+public class ReactiveCalculatorService {
+
+    private ReactiveDataStore dataStore;
+    private Calculator calculator;
+    private Scheduler calculations;
+
+    public Mono<ResultResponse> calculate(InputRequest request, Operation operation) {
+        double[] inputs = request.inputs();
+        return Mono.fromCallable(() -> calculator.key(inputs, operation))
+                .subscribeOn(calculations)
+                .flatMap(key -> dataStore.findByNumbersAndOperation(key.numbers(), operation)
+                        .switchIfEmpty(Mono.defer(() -> calculateAndSave(inputs, key))))
+                .map(result -> new ResultResponse(result.getResult()));
+    }
+
+    private Mono<Result> calculateAndSave(double[] inputs, ResultKey key) {
+        log.info("Calculating {} operation for {}", key.operation().name(), key.numbers());
+        return Mono.fromCallable(() -> calculator.calculate(inputs, key.operation()))
+                .subscribeOn(calculations)
+                .flatMap(aDouble -> dataStore.save(Result.builder()
+                        .operation(key.operation())
+                        .result(aDouble)
+                        .numbers(key.numbers())
+                        .build()));
+    }
+
+    /**
+     * Resolves every item that was calculated before with a single lookup and stores the new results in one go.
+     * Items that cannot be calculated get the same error the single item endpoints would respond with.
+     */
+    public Mono<BatchResponse> calculateBatch(BatchRequest request) {
+        List<BatchItem> items = request.items();
+        List<double[]> inputs = items.stream()
+                .map(item -> calculator.toArray(item.inputs()))
+                .toList();
+        return Mono.fromCallable(() -> keys(items, inputs))
+                .subscribeOn(calculations)
+                .flatMap(keys -> dataStore.findAllByKeys(keys)
+                        .collectMap(Result::key)
+                        .publishOn(calculations)
+                        .flatMap(results -> calculateMissing(items, inputs, keys, results)));
+    }
+
+    private Mono<BatchResponse> calculateMissing(List<BatchItem> items, List<double[]> inputs, List<ResultKey> keys,
+                                                 Map<ResultKey, Result> results) {
+        Map<ResultKey, Result> calculated = new LinkedHashMap<>();
+        List<BatchItemResponse> responses = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            ResultKey key = keys.get(i);
+            Result result = results.containsKey(key) ? results.get(key) : calculated.get(key);
+            if (result == null) {
+                try {
+                    result = Result.builder()
+                            .operation(item.operation())
+                            .result(calculator.calculate(inputs.get(i), item.operation()))
+                            .numbers(key.numbers())
+                            .build();
+                } catch (ArithmeticException | EmptyInputsException e) {
+                    responses.add(BatchItemResponse.of(new ErrorResponse(HttpStatus.FORBIDDEN, e.getMessage())));
+                    continue;
+                } catch (InvalidInputsException e) {
+                    responses.add(BatchItemResponse.of(new ErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage())));
+                    continue;
+                }
+                calculated.put(key, result);
+            }
+            responses.add(BatchItemResponse.of(result.getResult()));
+        }
+        if (calculated.isEmpty()) {
+            return Mono.just(new BatchResponse(responses));
+        }
+        log.info("Calculated {} of {} batch items", calculated.size(), items.size());
+        return dataStore.saveAll(new ArrayList<>(calculated.values()))
+                .then(Mono.just(new BatchResponse(responses)));
+    }
+
+    private List<ResultKey> keys(List<BatchItem> items, List<double[]> inputs) {
+        List<ResultKey> keys = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            keys.add(calculator.key(inputs.get(i), items.get(i).operation()));
+        }
+        return keys;
+    }
+
+    public Mono<ResultResponse> getExistingResultById(int id) {
+        return dataStore.findById(id)
+                .map(result -> new ResultResponse(result.getResult()))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Result does not exist")));
+    }
+
+    public Mono<ResultResponse> getExistingResultByInputsAndOperation(List<Double> inputs, Operation operation) {
+        return Mono.fromCallable(() -> calculator.key(calculator.toArray(inputs), operation))
+                .subscribeOn(calculations)
+                .flatMap(key -> dataStore.findByNumbersAndOperation(key.numbers(), key.operation()))
+                .map(result -> new ResultResponse(result.getResult()))
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Result does not exist")));
+    }
+}
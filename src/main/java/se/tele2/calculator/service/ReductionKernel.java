@@ -0,0 +1,57 @@
+package se.tele2.calculator.service;
+
+import lombok.extern.slf4j.Slf4j;
+import se.tele2.calculator.model.Operation;
+
+/**
+ * Inner loops of the calculations. Addition and multiplication keep {@link #LANES} independent accumulators that
+ * are combined as {@code (lane0 op lane1) op (lane2 op lane3)} before the remaining inputs are folded in.
+ * When the JDK Vector API is available (started with {@code --add-modules jdk.incubator.vector}) and the CPU has
+ * 256-bit vectors the lanes are computed with SIMD instructions, otherwise with scalar code in exactly the same
+ * order, so both give bit-identical results.
+ */
+@Slf4j
+public final class ReductionKernel {
+
+    static final int LANES = 4;
+
+    static final boolean VECTORIZED = isVectorApiSupported();
+
+    private ReductionKernel() {
+    }
+
+    public static double fold(double[] inputs, int from, int to, Operation operation) {
+        if (to - from < LANES) {
+            return ScalarReductionKernel.leftFold(inputs, from, to, operation);
+        }
+        return VECTORIZED
+                ? VectorReductionKernel.fold(inputs, from, to, operation)
+                : ScalarReductionKernel.fold(inputs, from, to, operation);
+    }
+
+    public static boolean containsZero(double[] inputs, int from, int to) {
+        return VECTORIZED
+                ? VectorReductionKernel.containsZero(inputs, from, to)
+                : ScalarReductionKernel.containsZero(inputs, from, to);
+    }
+
+    static double combine(double left, double right, Operation operation) {
+        return operation == Operation.ADDITION ? left + right : left * right;
+    }
+
+    private static boolean isVectorApiSupported() {
+        if (!Boolean.parseBoolean(System.getProperty("calculator.vector.enabled", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("Vector API is not enabled, using scalar reduction kernels");
+            return false;
+        }
+        try {
+            boolean supported = VectorReductionKernel.isSupported();
+            log.info("Vector API is enabled, {} vectorized reduction kernels", supported ? "using" : "CPU is too narrow for");
+            return supported;
+        } catch (LinkageError e) {
+            log.warn("Vector API could not be loaded, using scalar reduction kernels", e);
+            return false;
+        }
+    }
+}
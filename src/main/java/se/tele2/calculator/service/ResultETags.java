@@ -0,0 +1,28 @@
+package se.tele2.calculator.service;
+
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultDigest;
+
+import java.util.List;
+
+/**
+ * Strong entity tags of stored results. A stored result never changes, so its tag only depends on what identifies it,
+ * the id or the canonical inputs and operation, and can be compared without looking the result up.
+ */
+@Component
+@AllArgsConstructor
+public class ResultETags {
+
+    private Calculator calculator;
+
+    public String of(int id) {
+        return "\"id-" + id + '"';
+    }
+
+    public String of(List<Double> inputs, Operation operation) {
+        ResultDigest digest = calculator.key(calculator.toArray(inputs), operation).digest();
+        return String.format("\"%016x%016x\"", digest.high(), digest.low());
+    }
+}
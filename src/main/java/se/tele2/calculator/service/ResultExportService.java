@@ -0,0 +1,88 @@
+package se.tele2.calculator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import se.tele2.calculator.repository.ResultExporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static se.tele2.calculator.service.StreamingCalculatorService.TEXT_CSV;
+
+/**
+ * Writes stored results to a response body while they are read from the database, as NDJSON, one object per line,
+ * or as CSV with a header line. Every row carries its id, so an export that broke off can be resumed after the last
+ * id received.
+ */
+@Service
+@AllArgsConstructor
+@Slf4j
+public class ResultExportService {
+
+    static final String CSV_HEADER = "id,operation,result,numbers\n";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private ResultExporter exporter;
+
+    public void export(OutputStream body, MediaType format, int afterId) throws IOException {
+        long exported;
+        try {
+            exported = TEXT_CSV.equalsTypeAndSubtype(format) ? exportCsv(body, afterId) : exportNdjson(body, afterId);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        log.info("Exported {} results after id {} as {}", exported, afterId, format);
+    }
+
+    private long exportNdjson(OutputStream body, int afterId) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(body)) {
+            generator.setRootValueSeparator(null);
+            return exporter.export(afterId, result -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", result.getId());
+                    generator.writeStringField("operation", result.getOperation().name());
+                    generator.writeNumberField("result", result.getResult());
+                    generator.writeStringField("numbers", result.getNumbers());
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * The numbers of a result are separated by commas themselves, so they are quoted.
+     */
+    private long exportCsv(OutputStream body, int afterId) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            return exporter.export(afterId, result -> {
+                try {
+                    writer.write(Integer.toString(result.getId()));
+                    writer.write(',');
+                    writer.write(result.getOperation().name());
+                    writer.write(',');
+                    writer.write(Double.toString(result.getResult()));
+                    writer.write(",\"");
+                    writer.write(result.getNumbers() == null ? "" : result.getNumbers());
+                    writer.write("\"\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
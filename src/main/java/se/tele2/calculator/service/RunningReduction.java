@@ -0,0 +1,54 @@
+package se.tele2.calculator.service;
+
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.model.Operation;
+
+/**
+ * Folds numbers into the result of an operation one at a time, from left to right, in the order they arrive.
+ * <p>
+ * For subtraction and division that is the order the calculator uses too. Addition and multiplication of a whole
+ * list are reduced differently: the calculator sorts the inputs and {@link ReductionKernel} combines them in lanes,
+ * neither of which can be done without holding the inputs. Rounding then differs, so a running sum or product can
+ * differ in the last bits from the stored result of the same inputs, and depends on the order of the inputs.
+ */
+public class RunningReduction {
+
+    private final Operation operation;
+    private long count;
+    private double value;
+
+    public RunningReduction(Operation operation) {
+        Calculator.checkArithmetic(operation);
+        this.operation = operation;
+    }
+
+    public void accept(double number) {
+        if (count == 0) {
+            value = number;
+        } else {
+            value = switch (operation) {
+                case ADDITION -> value + number;
+                case SUBTRACTION -> value - number;
+                case MULTIPLICATION -> value * number;
+                case DIVISION -> {
+                    if (number == 0)
+                        throw new ArithmeticException("Divide by zero.");
+                    yield value / number;
+                }
+                case EXPRESSION -> throw new IllegalStateException();
+            };
+        }
+        count++;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double result() {
+        if (count == 0) {
+            throw new EmptyInputsException("No number to do the operation");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,57 @@
+package se.tele2.calculator.service;
+
+import se.tele2.calculator.model.Operation;
+
+import static se.tele2.calculator.service.ReductionKernel.LANES;
+import static se.tele2.calculator.service.ReductionKernel.combine;
+
+final class ScalarReductionKernel {
+
+    private ScalarReductionKernel() {
+    }
+
+    static double fold(double[] inputs, int from, int to, Operation operation) {
+        double lane0 = inputs[from];
+        double lane1 = inputs[from + 1];
+        double lane2 = inputs[from + 2];
+        double lane3 = inputs[from + 3];
+        int upper = from + (to - from) / LANES * LANES;
+        int i = from + LANES;
+        if (operation == Operation.ADDITION) {
+            for (; i < upper; i += LANES) {
+                lane0 += inputs[i];
+                lane1 += inputs[i + 1];
+                lane2 += inputs[i + 2];
+                lane3 += inputs[i + 3];
+            }
+        } else {
+            for (; i < upper; i += LANES) {
+                lane0 *= inputs[i];
+                lane1 *= inputs[i + 1];
+                lane2 *= inputs[i + 2];
+                lane3 *= inputs[i + 3];
+            }
+        }
+        double result = combine(combine(lane0, lane1, operation), combine(lane2, lane3, operation), operation);
+        for (; i < to; i++) {
+            result = combine(result, inputs[i], operation);
+        }
+        return result;
+    }
+
+    static double leftFold(double[] inputs, int from, int to, Operation operation) {
+        double result = inputs[from];
+        for (int i = from + 1; i < to; i++) {
+            result = combine(result, inputs[i], operation);
+        }
+        return result;
+    }
+
+    static boolean containsZero(double[] inputs, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (inputs[i] == 0)
+                return true;
+        }
+        return false;
+    }
+}
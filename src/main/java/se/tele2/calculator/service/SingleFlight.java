@@ -0,0 +1,72 @@
+package se.tele2.calculator.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Lets only one caller at a time do the work for a key.
+ * The first caller becomes the leader and runs the work, callers that ask for the same key while it runs are
+ * followers: they wait for the leader and get its value, or its exception.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+
+    public V execute(K key, Supplier<V> work) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leading = inFlight.putIfAbsent(key, flight);
+        if (leading != null) {
+            followers.increment();
+            return await(leading);
+        }
+        leaders.increment();
+        try {
+            V value = work.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return number of calls that did the work themselves
+     */
+    public long leaders() {
+        return leaders.sum();
+    }
+
+    /**
+     * @return number of calls that waited for a leader instead of doing the work
+     */
+    public long followers() {
+        return followers.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private V await(CompletableFuture<V> leading) {
+        try {
+            return leading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package se.tele2.calculator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Calculates inputs straight from the request body while it is read, so memory use does not grow with the number of
+ * inputs. The inputs are never held as a whole, which is why streamed calculations are neither looked up in nor
+ * saved to the data store.
+ */
+@Service
+@Slf4j
+public class StreamingCalculatorService {
+
+    public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private static final int MAX_NUMBER_LENGTH = 64;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ResultResponse calculate(InputStream body, MediaType contentType, Operation operation) {
+        RunningReduction reduction = new RunningReduction(operation);
+        try {
+            if (TEXT_CSV.isCompatibleWith(contentType)) {
+                readCsv(body, reduction);
+            } else {
+                readJson(body, reduction);
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidInputsException("Inputs are not valid JSON");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Calculated {} operation for {} streamed numbers", operation.name(), reduction.count());
+        return new ResultResponse(reduction.result());
+    }
+
+    /**
+     * Accepts a JSON array, an {@code {"inputs": [...]}} object or newline delimited numbers and arrays of numbers.
+     */
+    private void readJson(InputStream body, RunningReduction reduction) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                switch (token) {
+                    case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> reduction.accept(parser.getDoubleValue());
+                    case START_ARRAY, END_ARRAY, START_OBJECT, END_OBJECT -> {
+                    }
+                    case FIELD_NAME -> {
+                        if (!"inputs".equals(parser.getCurrentName()))
+                            throw new InvalidInputsException("Unknown field " + parser.getCurrentName());
+                    }
+                    default -> throw new InvalidInputsException("Inputs must be numbers");
+                }
+            }
+        }
+    }
+
+    /**
+     * Accepts numbers separated by commas and/or line breaks.
+     */
+    private void readCsv(InputStream body, RunningReduction reduction) throws IOException {
+        Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8);
+        char[] buffer = new char[8192];
+        StringBuilder number = new StringBuilder(MAX_NUMBER_LENGTH);
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == ',' || c == '\n' || c == '\r') {
+                    acceptCsvNumber(number, reduction);
+                } else if (!Character.isWhitespace(c)) {
+                    if (number.length() == MAX_NUMBER_LENGTH)
+                        throw new InvalidInputsException("Inputs must be numbers");
+                    number.append(c);
+                }
+            }
+        }
+        acceptCsvNumber(number, reduction);
+    }
+
+    private void acceptCsvNumber(StringBuilder number, RunningReduction reduction) {
+        if (number.length() == 0) {
+            return;
+        }
+        try {
+            reduction.accept(Double.parseDouble(number.toString()));
+        } catch (NumberFormatException e) {
+            throw new InvalidInputsException("Inputs must be numbers");
+        }
+        number.setLength(0);
+    }
+}
@@ -0,0 +1,64 @@
+package se.tele2.calculator.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import se.tele2.calculator.model.Operation;
+
+import static se.tele2.calculator.service.ReductionKernel.LANES;
+import static se.tele2.calculator.service.ReductionKernel.combine;
+
+/**
+ * Only loaded when the jdk.incubator.vector module is present. The lanes are combined one by one instead of with
+ * {@code reduceLanes}, whose order is unspecified for floating point numbers.
+ * {@link #fold} is meant for ranges of at most {@link ParallelReducer#LEAF_SIZE} inputs: on much longer ranges C2 in
+ * JDK 17 compiles the loop on-stack-replaced and boxes the accumulator vector on every iteration.
+ */
+final class VectorReductionKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_256;
+
+    private VectorReductionKernel() {
+    }
+
+    static boolean isSupported() {
+        return SPECIES.length() == LANES && DoubleVector.SPECIES_PREFERRED.vectorBitSize() >= SPECIES.vectorBitSize();
+    }
+
+    static double fold(double[] inputs, int from, int to, Operation operation) {
+        DoubleVector lanes = DoubleVector.fromArray(SPECIES, inputs, from);
+        int upper = from + SPECIES.loopBound(to - from);
+        int i = from + LANES;
+        if (operation == Operation.ADDITION) {
+            for (; i < upper; i += LANES) {
+                lanes = lanes.add(DoubleVector.fromArray(SPECIES, inputs, i));
+            }
+        } else {
+            for (; i < upper; i += LANES) {
+                lanes = lanes.mul(DoubleVector.fromArray(SPECIES, inputs, i));
+            }
+        }
+        double result = combine(
+                combine(lanes.lane(0), lanes.lane(1), operation),
+                combine(lanes.lane(2), lanes.lane(3), operation),
+                operation);
+        for (; i < to; i++) {
+            result = combine(result, inputs[i], operation);
+        }
+        return result;
+    }
+
+    static boolean containsZero(double[] inputs, int from, int to) {
+        int upper = from + SPECIES.loopBound(to - from);
+        int i = from;
+        for (; i < upper; i += LANES) {
+            if (DoubleVector.fromArray(SPECIES, inputs, i).compare(VectorOperators.EQ, 0.0).anyTrue())
+                return true;
+        }
+        for (; i < to; i++) {
+            if (inputs[i] == 0)
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package se.tele2.calculator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.model.AccumulatorRequest;
+import se.tele2.calculator.model.AccumulatorResponse;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.service.AccumulatorService;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static se.tele2.calculator.model.Operation.ADDITION;
+
+@WebMvcTest(controllers = AccumulatorController.class)
+class AccumulatorControllerTest {
+
+    @MockBean
+    private AccumulatorService service;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldCreateAccumulator() throws Exception {
+        given(service.create(ADDITION)).willReturn(new AccumulatorResponse(3, ADDITION, null, 0));
+
+        mockMvc.perform(post("/accumulators")
+                        .content(objectMapper.writeValueAsString(new AccumulatorRequest(ADDITION)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/accumulators/3"))
+                .andExpect(jsonPath("$.id", equalTo(3)))
+                .andExpect(jsonPath("$.result", nullValue()));
+    }
+
+    @Test
+    void shouldAppendInputs() throws Exception {
+        given(service.append(eq(3), aryEq(new double[]{1.0, 2.0}))).willReturn(new AccumulatorResponse(3, ADDITION, 3.0, 2));
+
+        mockMvc.perform(post("/accumulators/3/inputs")
+                        .content(objectMapper.writeValueAsString(new InputRequest(List.of(1.0, 2.0))))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", equalTo(3.0)))
+                .andExpect(jsonPath("$.inputs", equalTo(2)));
+    }
+
+    @Test
+    void shouldResponse400WhenOperationIsMissing() throws Exception {
+        mockMvc.perform(post("/accumulators")
+                        .content("{}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldResponse404WhenAccumulatorDoesNotExist() throws Exception {
+        given(service.get(9)).willThrow(new NotFoundException("Accumulator does not exist"));
+
+        mockMvc.perform(get("/accumulators/9"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", equalTo("Accumulator does not exist")));
+    }
+}
@@ -0,0 +1,61 @@
+package se.tele2.calculator.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import se.tele2.calculator.exception.OverloadedException;
+import se.tele2.calculator.service.ConcurrencyLimiter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class AdmissionInterceptorTest {
+
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter("Requests", 1000, 100, 10000, 2.0, 0.5);
+    private final AdmissionInterceptor interceptor = new AdmissionInterceptor(limiter);
+
+    @Test
+    void shouldWeightRequestByLengthOfItsBody() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/addition");
+        request.setContent(new byte[90 * AdmissionInterceptor.BYTES_PER_INPUT]);
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertThat(limiter.inFlight()).isEqualTo(90);
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldRunChunkedRequestAlone() {
+        MockHttpServletRequest lookup = new MockHttpServletRequest("GET", "/existingresult/1");
+        interceptor.preHandle(lookup, new MockHttpServletResponse(), null);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/addition");
+        chunked.addHeader(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        assertThatExceptionOfType(OverloadedException.class)
+                .isThrownBy(() -> interceptor.preHandle(chunked, new MockHttpServletResponse(), null));
+
+        interceptor.afterCompletion(lookup, new MockHttpServletResponse(), null, null);
+        interceptor.preHandle(chunked, new MockHttpServletResponse(), null);
+        assertThat(limiter.inFlight()).isEqualTo(1000);
+        assertThatExceptionOfType(OverloadedException.class)
+                .isThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest("GET", "/existingresult/1"),
+                        new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void shouldRunStreamedRequestAloneWhateverItsLength() {
+        AdmissionInterceptor streaming = new AdmissionInterceptor(limiter, true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/stream/ADDITION");
+        request.setContent(new byte[90 * AdmissionInterceptor.BYTES_PER_INPUT]);
+
+        streaming.preHandle(request, new MockHttpServletResponse(), null);
+
+        assertThat(limiter.inFlight()).isEqualTo(1000);
+        streaming.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertThat(limiter.inFlight()).isZero();
+    }
+}
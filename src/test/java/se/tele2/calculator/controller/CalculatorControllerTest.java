@@ -2,36 +2,58 @@ package se.tele2.calculator.controller;
 
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import se.tele2.calculator.config.CalculationConfig;
+import se.tele2.calculator.config.CborConfig;
 import se.tele2.calculator.exception.EmptyInputsException;
 import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.OverloadedException;
+import se.tele2.calculator.model.BatchItem;
+import se.tele2.calculator.model.BatchItemResponse;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
 import se.tele2.calculator.model.InputRequest;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.CalculationBudgets;
+import se.tele2.calculator.service.Calculator;
 import se.tele2.calculator.service.CalculatorService;
+import se.tele2.calculator.service.ConcurrencyLimiter;
+import se.tele2.calculator.service.ResultETags;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CalculatorController.class)
+@Import({ResultETags.class, Calculator.class, CalculationConfig.class, CborConfig.class})
 class CalculatorControllerTest {
 
     @MockBean
@@ -43,6 +65,9 @@ class CalculatorControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CalculationBudgets budgets;
+
     @Test
     void shouldCalculateAdditionSuccessfully() throws Exception {
         InputRequest request = new InputRequest(List.of(10.0, 20.0));
@@ -55,6 +80,41 @@ class CalculatorControllerTest {
                 .andExpect(jsonPath("$.result", equalTo(30.0)));
     }
 
+    @Test
+    void shouldCalculateCborRequestToCborResponse() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        InputRequest request = new InputRequest(List.of(0.1, 0.2));
+        given(service.calculate(eq(request), eq(Operation.ADDITION))).willReturn(new ResultResponse(0.1 + 0.2));
+
+        byte[] body = mockMvc.perform(post("/addition")
+                        .content(cborMapper.writeValueAsBytes(request))
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(cborMapper.readValue(body, ResultResponse.class)).isEqualTo(new ResultResponse(0.1 + 0.2));
+    }
+
+    @Test
+    void shouldResponseCborErrorWhenCborIsAccepted() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        InputRequest request = new InputRequest(List.of(10.0, 0.0));
+        given(service.calculate(eq(request), eq(Operation.DIVISION))).willThrow(new ArithmeticException("Divide by zero."));
+
+        byte[] body = mockMvc.perform(post("/division")
+                        .content(cborMapper.writeValueAsBytes(request))
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isForbidden())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(cborMapper.readValue(body, ErrorResponse.class))
+                .isEqualTo(new ErrorResponse(HttpStatus.FORBIDDEN, "Divide by zero."));
+    }
+
     @Test
     void shouldCalculateSubtractionSuccessfully() throws Exception {
         InputRequest request = new InputRequest(List.of(20.0, 10.0));
@@ -124,9 +184,70 @@ class CalculatorControllerTest {
         mockMvc.perform(get("/existingresult/{id}", 1)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"id-1\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
                 .andExpect(jsonPath("$.result", equalTo(5.0)));
     }
 
+    @Test
+    void shouldResponse304WithoutLookingUpResultWhenETagMatches() throws Exception {
+        mockMvc.perform(get("/existingresult/{id}", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"id-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"id-1\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldGiveJsonAndCborOfSameResultETagsOfTheirOwn() throws Exception {
+        given(service.getExistingResultById(eq(1))).willReturn(new ResultResponse(5.0));
+
+        mockMvc.perform(get("/existingresult/{id}", 1)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"id-1\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/existingresult/{id}", 1)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"id-1-cbor\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/existingresult/{id}", 1)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"id-1\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    void shouldResponse400ForExistingResultOfExpression() throws Exception {
+        mockMvc.perform(get("/existingresult/{numbers}/{operation}", "1.0,2.0", Operation.EXPRESSION))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("Expressions are only evaluated by /expression")));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldGiveSameETagToInputsInAnyOrderOfAddition() throws Exception {
+        given(service.getExistingResultByInputsAndOperation(anyList(), any())).willReturn(new ResultResponse(60.0));
+
+        String etag = mockMvc.perform(get("/existingresult/{numbers}/{operation}", "10.0,20.0,30.0", Operation.ADDITION))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/existingresult/{numbers}/{operation}", "30.0,10.0,20.0", Operation.ADDITION)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/existingresult/{numbers}/{operation}", "30.0,10.0,20.0", Operation.SUBTRACTION)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void shouldReturnExistingResultByNumbersAndOperation() throws Exception {
         given(service.getExistingResultByInputsAndOperation(anyList(), any())).willReturn(new ResultResponse(60.0));
@@ -152,4 +273,83 @@ class CalculatorControllerTest {
                 .andExpect(jsonPath("$.status", equalTo("NOT_FOUND")))
                 .andExpect(jsonPath("$.message", equalTo("Result does not exist")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldResponse503WithRetryAfterWhenOverloaded() throws Exception {
+        InputRequest request = new InputRequest(List.of(10.0, 20.0));
+        given(service.calculate(eq(request), eq(Operation.ADDITION)))
+                .willThrow(new OverloadedException("Calculations are over their limit of 1000 inputs in progress", 2));
+
+        mockMvc.perform(post("/addition")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.status", equalTo("SERVICE_UNAVAILABLE")))
+                .andExpect(jsonPath("$.message", equalTo("Calculations are over their limit of 1000 inputs in progress")));
+    }
+
+    @Test
+    void shouldRejectRequestBeforeReadingItWhenRequestBudgetIsFull() throws Exception {
+        InputRequest request = new InputRequest(List.of(10.0, 20.0));
+
+        try (ConcurrencyLimiter.Permit permit = budgets.requests().acquire(budgets.requests().limit())) {
+            mockMvc.perform(post("/addition")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        }
+        verifyNoInteractions(service);
+        assertThat(budgets.requests().inFlight()).isZero();
+    }
+
+    @Test
+    void shouldCalculateBatch() throws Exception {
+        BatchRequest request = new BatchRequest(List.of(
+                new BatchItem(Operation.ADDITION, List.of(10.0, 20.0)),
+                new BatchItem(Operation.DIVISION, List.of(10.0, 0.0))));
+        given(service.calculateBatch(eq(request))).willReturn(new BatchResponse(List.of(
+                BatchItemResponse.of(30.0),
+                BatchItemResponse.of(new ErrorResponse(HttpStatus.FORBIDDEN, "Divide by zero.")))));
+
+        mockMvc.perform(post("/batch")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].result", equalTo(30.0)))
+                .andExpect(jsonPath("$.results[0].error").doesNotExist())
+                .andExpect(jsonPath("$.results[1].error.status", equalTo("FORBIDDEN")))
+                .andExpect(jsonPath("$.results[1].error.message", equalTo("Divide by zero.")));
+    }
+
+    @Test
+    void shouldResponse400WhenAnInputIsNull() throws Exception {
+        mockMvc.perform(post("/division")
+                        .content("{\"inputs\":[1.0,null]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldResponse400WhenAnInputIsNullInCbor() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+
+        mockMvc.perform(post("/division")
+                        .content(cborMapper.writeValueAsBytes(Map.of("inputs", Arrays.asList(1.0, null))))
+                        .contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldResponse400WhenBatchItemHasNoOperation() throws Exception {
+        mockMvc.perform(post("/batch")
+                        .content("{\"items\":[{\"inputs\":[1.0]}]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
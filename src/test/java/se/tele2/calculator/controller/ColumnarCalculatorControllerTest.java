@@ -0,0 +1,107 @@
+package se.tele2.calculator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import se.tele2.calculator.config.CalculationConfig;
+import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.ColumnarError;
+import se.tele2.calculator.model.ColumnarRequest;
+import se.tele2.calculator.model.ColumnarResponse;
+import se.tele2.calculator.service.CalculationBudgets;
+import se.tele2.calculator.service.ColumnarCalculatorService;
+import se.tele2.calculator.service.ConcurrencyLimiter;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+@WebMvcTest(controllers = ColumnarCalculatorController.class)
+@Import(CalculationConfig.class)
+class ColumnarCalculatorControllerTest {
+
+    @MockBean
+    private ColumnarCalculatorService service;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CalculationBudgets budgets;
+
+    @Test
+    void shouldCalculateRowsWithoutPersisting() throws Exception {
+        ColumnarRequest request = new ColumnarRequest(new double[]{2, 3, 4}, new int[]{0, 2, 3});
+        given(service.calculate(eq(request), eq(MULTIPLICATION), eq(false)))
+                .willReturn(new ColumnarResponse(new double[]{6, 4}, List.of()));
+
+        mockMvc.perform(post("/columnar/MULTIPLICATION?persist=false")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0]", equalTo(6.0)))
+                .andExpect(jsonPath("$.results[1]", equalTo(4.0)));
+    }
+
+    @Test
+    void shouldReturnErrorsOfRows() throws Exception {
+        ColumnarRequest request = new ColumnarRequest(new double[]{1, 0}, new int[]{0, 2});
+        given(service.calculate(eq(request), eq(DIVISION), eq(true))).willReturn(new ColumnarResponse(new double[]{Double.NaN},
+                List.of(new ColumnarError(0, new ErrorResponse(HttpStatus.FORBIDDEN, "Divide by zero.")))));
+
+        mockMvc.perform(post("/columnar/DIVISION")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].row", equalTo(0)))
+                .andExpect(jsonPath("$.errors[0].error.message", equalTo("Divide by zero.")));
+    }
+
+    @Test
+    void shouldResponse400WhenOffsetsAreInvalid() throws Exception {
+        ColumnarRequest request = new ColumnarRequest(new double[]{1}, new int[]{0});
+        given(service.calculate(eq(request), eq(DIVISION), eq(true)))
+                .willThrow(new InvalidInputsException("Offsets must start at 0 and end at the number of values"));
+
+        mockMvc.perform(post("/columnar/DIVISION")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRejectRequestBeforeReadingItWhenRequestBudgetIsFull() throws Exception {
+        ColumnarRequest request = new ColumnarRequest(new double[]{2, 3, 4}, new int[]{0, 2, 3});
+
+        try (ConcurrencyLimiter.Permit permit = budgets.requests().acquire(budgets.requests().limit())) {
+            mockMvc.perform(post("/columnar/ADDITION")
+                            .content(objectMapper.writeValueAsString(request))
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        }
+        verifyNoInteractions(service);
+        assertThat(budgets.requests().inFlight()).isZero();
+    }
+}
@@ -0,0 +1,73 @@
+package se.tele2.calculator.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import se.tele2.calculator.config.ExportProperties;
+import se.tele2.calculator.service.ResultExportService;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static se.tele2.calculator.service.StreamingCalculatorService.TEXT_CSV;
+
+@WebMvcTest(controllers = ExportController.class)
+@EnableConfigurationProperties(ExportProperties.class)
+class ExportControllerTest {
+
+    @MockBean
+    private ResultExportService service;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldStreamNdjsonByDefault() throws Exception {
+        willAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(service).export(any(), eq(MediaType.APPLICATION_NDJSON), eq(0));
+
+        MvcResult result = mockMvc.perform(get("/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofHours(1).toMillis());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void shouldStreamCsvAfterGivenIdWhenCsvIsAccepted() throws Exception {
+        willAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(0).write("id\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(service).export(any(), eq(TEXT_CSV), eq(41));
+
+        MvcResult result = mockMvc.perform(get("/export?after=41").accept("application/x-ndjson;q=0.5, text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TEXT_CSV))
+                .andExpect(content().string("id\n"));
+    }
+}
@@ -0,0 +1,66 @@
+package se.tele2.calculator.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.ExpressionRequest;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.ExpressionService;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ExpressionController.class)
+class ExpressionControllerTest {
+
+    @MockBean
+    private ExpressionService service;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldEvaluateExpression() throws Exception {
+        ExpressionRequest request = new ExpressionRequest("(a+b)*c", Map.of("a", 1.0, "b", 2.0, "c", 3.0));
+        given(service.evaluate(request)).willReturn(new ResultResponse(9.0));
+
+        mockMvc.perform(post("/expression")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", equalTo(9.0)));
+    }
+
+    @Test
+    void shouldResponse400WhenExpressionIsInvalid() throws Exception {
+        ExpressionRequest request = new ExpressionRequest("1 +", Map.of());
+        given(service.evaluate(request)).willThrow(new InvalidInputsException("Unexpected end of expression"));
+
+        mockMvc.perform(post("/expression")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", equalTo("Unexpected end of expression")));
+    }
+
+    @Test
+    void shouldResponse400WhenExpressionIsBlank() throws Exception {
+        mockMvc.perform(post("/expression")
+                        .content("{\"expression\": \" \"}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+}
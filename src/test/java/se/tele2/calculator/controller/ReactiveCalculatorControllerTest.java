@@ -0,0 +1,219 @@
+package se.tele2.calculator.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import se.tele2.calculator.config.CalculationConfig;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.ErrorResponse;
+import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.model.BatchItem;
+import se.tele2.calculator.model.BatchItemResponse;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
+import se.tele2.calculator.model.InputRequest;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.Calculator;
+import se.tele2.calculator.service.ReactiveCalculatorService;
+import se.tele2.calculator.service.ResultETags;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@WebFluxTest(controllers = ReactiveCalculatorController.class)
+@Import({ResultETags.class, Calculator.class, CalculationConfig.class})
+class ReactiveCalculatorControllerTest {
+
+    @MockBean
+    private ReactiveCalculatorService service;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void shouldCalculateAdditionSuccessfully() {
+        InputRequest request = new InputRequest(List.of(10.0, 20.0));
+        given(service.calculate(eq(request), eq(Operation.ADDITION))).willReturn(Mono.just(new ResultResponse(30.0)));
+
+        webTestClient.post().uri("/addition")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.result").isEqualTo(30.0);
+    }
+
+    @Test
+    void shouldCalculateCborRequestToCborResponse() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        InputRequest request = new InputRequest(List.of(0.1, 0.2));
+        given(service.calculate(eq(request), eq(Operation.ADDITION))).willReturn(Mono.just(new ResultResponse(0.1 + 0.2)));
+
+        byte[] body = webTestClient.post().uri("/addition")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(cborMapper.writeValueAsBytes(request))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody().returnResult().getResponseBody();
+
+        assertThat(cborMapper.readValue(body, ResultResponse.class)).isEqualTo(new ResultResponse(0.1 + 0.2));
+    }
+
+    @Test
+    void shouldResponseCborErrorWhenCborIsAccepted() throws Exception {
+        CBORMapper cborMapper = new CBORMapper();
+        InputRequest request = new InputRequest(List.of(10.0, 0.0));
+        given(service.calculate(eq(request), eq(Operation.DIVISION))).willReturn(Mono.error(new ArithmeticException("Divide by zero.")));
+
+        byte[] body = webTestClient.post().uri("/division")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .bodyValue(cborMapper.writeValueAsBytes(request))
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody().returnResult().getResponseBody();
+
+        assertThat(cborMapper.readValue(body, ErrorResponse.class))
+                .isEqualTo(new ErrorResponse(HttpStatus.FORBIDDEN, "Divide by zero."));
+    }
+
+    @Test
+    void shouldResponse403WhenDivisorIsZeroInDivision() {
+        InputRequest request = new InputRequest(List.of(10.0, 0.0));
+        given(service.calculate(eq(request), eq(Operation.DIVISION))).willReturn(Mono.error(new ArithmeticException("Divide by zero.")));
+
+        webTestClient.post().uri("/division")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("FORBIDDEN")
+                .jsonPath("$.message").isEqualTo("Divide by zero.");
+    }
+
+    @Test
+    void shouldResponse403WhenInputIsEmpty() {
+        InputRequest request = new InputRequest(List.of());
+        given(service.calculate(eq(request), eq(Operation.SUBTRACTION))).willReturn(Mono.error(new EmptyInputsException("No number to do the operation")));
+
+        webTestClient.post().uri("/subtraction")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isForbidden()
+                .expectBody().jsonPath("$.message").isEqualTo("No number to do the operation");
+    }
+
+    @Test
+    void shouldReturnExistingResultByNumbersAndOperation() {
+        given(service.getExistingResultByInputsAndOperation(anyList(), any())).willReturn(Mono.just(new ResultResponse(60.0)));
+
+        webTestClient.get().uri("/existingresult/{numbers}/{operation}", "10.0,20.0,30.0", Operation.ADDITION)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable")
+                .expectBody().jsonPath("$.result").isEqualTo(60.0);
+    }
+
+    @Test
+    void shouldGiveJsonAndCborOfSameResultETagsOfTheirOwn() {
+        given(service.getExistingResultById(eq(1))).willReturn(Mono.just(new ResultResponse(5.0)));
+
+        webTestClient.get().uri("/existingresult/{id}", 1)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"id-1\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        webTestClient.get().uri("/existingresult/{id}", 1)
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"id-1-cbor\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void shouldResponse304WithoutLookingUpResultWhenETagMatches() {
+        webTestClient.get().uri("/existingresult/{id}", 1)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"id-1\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"id-1\"");
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldResponse400ForExistingResultOfExpression() {
+        webTestClient.get().uri("/existingresult/{numbers}/{operation}", "1.0,2.0", Operation.EXPRESSION)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Expressions are only evaluated by /expression");
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldResponse404WhenResultDoesNotExist() {
+        given(service.getExistingResultById(eq(1))).willReturn(Mono.error(new NotFoundException("Result does not exist")));
+
+        webTestClient.get().uri("/existingresult/{id}", 1)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo("NOT_FOUND")
+                .jsonPath("$.message").isEqualTo("Result does not exist");
+    }
+
+    @Test
+    void shouldCalculateBatch() {
+        BatchRequest request = new BatchRequest(List.of(
+                new BatchItem(Operation.ADDITION, List.of(10.0, 20.0)),
+                new BatchItem(Operation.DIVISION, List.of(10.0, 0.0))));
+        given(service.calculateBatch(eq(request))).willReturn(Mono.just(new BatchResponse(List.of(
+                BatchItemResponse.of(30.0),
+                BatchItemResponse.of(new ErrorResponse(HttpStatus.FORBIDDEN, "Divide by zero."))))));
+
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.results[0].result").isEqualTo(30.0)
+                .jsonPath("$.results[1].error.message").isEqualTo("Divide by zero.");
+    }
+
+    @Test
+    void shouldResponse400WhenBatchItemHasNoOperation() {
+        webTestClient.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"items\":[{\"inputs\":[1.0]}]}")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,62 @@
+package se.tele2.calculator.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.service.StreamingCalculatorService;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+
+@WebMvcTest(controllers = StreamingCalculatorController.class)
+class StreamingCalculatorControllerTest {
+
+    @MockBean
+    private StreamingCalculatorService service;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldCalculateStreamedCsv() throws Exception {
+        given(service.calculate(any(), any(), eq(ADDITION))).willReturn(new ResultResponse(30.0));
+
+        mockMvc.perform(post("/stream/{operation}", ADDITION)
+                        .content("10.0,20.0")
+                        .contentType(StreamingCalculatorService.TEXT_CSV))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result", equalTo(30.0)));
+    }
+
+    @Test
+    void shouldResponse400WhenStreamedInputIsInvalid() throws Exception {
+        given(service.calculate(any(), any(), eq(DIVISION))).willThrow(new InvalidInputsException("Inputs must be numbers"));
+
+        mockMvc.perform(post("/stream/{operation}", DIVISION)
+                        .content("[\"ten\"]")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", equalTo("BAD_REQUEST")))
+                .andExpect(jsonPath("$.message", equalTo("Inputs must be numbers")));
+    }
+
+    @Test
+    void shouldResponse415WhenContentTypeIsNotSupported() throws Exception {
+        mockMvc.perform(post("/stream/{operation}", ADDITION)
+                        .content("10.0")
+                        .contentType(MediaType.APPLICATION_XML))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
@@ -0,0 +1,57 @@
+package se.tele2.calculator.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ResultInputsTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "1.0", "1.0,2.0,3.0", "5.0,5.0,5.0,5.0", "-0.0,0.0,NaN,Infinity,-Infinity",
+            "4.9E-324,1.7976931348623157E308,1.0E-7,0.1,0.30000000000000004",
+            "", "5", "1.0,,2.0", " 1.0", "1.0,2.0,", "(a+b)*c;1.0,2.0,3.0"
+    })
+    void shouldDecodeToTheEncodedText(String numbers) {
+        assertThat(ResultInputs.decode(ResultInputs.encode(numbers))).isEqualTo(numbers);
+    }
+
+    @Test
+    void shouldDecodeManyRandomInputs() {
+        SplittableRandom random = new SplittableRandom(7);
+        String numbers = random.doubles(10_000, -1e6, 1e6)
+                .mapToObj(Double::toString)
+                .collect(Collectors.joining(","));
+
+        assertThat(ResultInputs.decode(ResultInputs.encode(numbers))).isEqualTo(numbers);
+    }
+
+    @Test
+    void shouldTakeLessThanTheText() {
+        String whole = "1.0,2.0,3.0,4.0,5.0,6.0,7.0,8.0";
+        String sorted = new SplittableRandom(7).doubles(100, -1000, 1000)
+                .sorted()
+                .mapToObj(Double::toString)
+                .collect(Collectors.joining(","));
+
+        assertThat(ResultInputs.encode(whole)).hasSizeLessThan(whole.length() * 2 / 3);
+        assertThat(ResultInputs.encode(sorted)).hasSizeLessThan(100 * Double.BYTES);
+        assertThat(ResultInputs.encode("(a+b)*c;1.0,2.0,3.0")).hasSize("(a+b)*c;1.0,2.0,3.0".length() + 1);
+    }
+
+    @Test
+    void shouldKeepTheTextWhenXorSavesLittle() {
+        assertThat(ResultInputs.encode("12345.0,1.5")).hasSize("12345.0,1.5".length() + 1);
+    }
+
+    @Test
+    void shouldRejectUnknownFormat() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ResultInputs.decode(new byte[]{9}));
+    }
+}
@@ -0,0 +1,31 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import se.tele2.calculator.model.Accumulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+@DataJpaTest
+class AccumulatorRepositoryTest {
+
+    @Autowired
+    private AccumulatorRepository repository;
+
+    @Test
+    void shouldUpdateSnapshot() {
+        Accumulator saved = repository.save(Accumulator.builder()
+                .operation(MULTIPLICATION)
+                .build());
+
+        int updated = repository.updateSnapshot(saved.getId(), 24.0, 4);
+        Accumulator found = repository.findById(saved.getId()).orElseThrow();
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(found.getResult()).isEqualTo(24.0);
+        assertThat(found.getInputs()).isEqualTo(4);
+        assertThat(found.getOperation()).isEqualTo(MULTIPLICATION);
+    }
+}
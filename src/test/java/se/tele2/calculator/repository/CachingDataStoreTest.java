@@ -0,0 +1,142 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+
+@ExtendWith(SpringExtension.class)
+class CachingDataStoreTest {
+
+    @MockBean
+    private DataBaseDataStore delegate;
+
+    private CachingDataStore dataStore;
+
+    @BeforeEach
+    void setUp() {
+        dataStore = new CachingDataStore(delegate, 2);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupFromCache() {
+        String numbers = "30.0,2.0,3.0";
+        given(delegate.findByNumbersAndOperation(eq(numbers), eq(DIVISION))).willReturn(Optional.of(getResultWithTestData(DIVISION, 5.0, numbers)));
+
+        Optional<Result> first = dataStore.findByNumbersAndOperation(numbers, DIVISION);
+        Optional<Result> second = dataStore.findByNumbersAndOperation(numbers, DIVISION);
+
+        assertThat(first).isPresent();
+        assertThat(second).isPresent();
+        assertThat(second.get().getResult()).isEqualTo(5.0);
+        verify(delegate, times(1)).findByNumbersAndOperation(anyString(), any());
+        assertThat(dataStore.stats().hitCount()).isEqualTo(1);
+        assertThat(dataStore.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCacheMissingResult() {
+        given(delegate.findByNumbersAndOperation(anyString(), any())).willReturn(Optional.empty());
+
+        dataStore.findByNumbersAndOperation("1.0,2.0", ADDITION);
+        dataStore.findByNumbersAndOperation("1.0,2.0", ADDITION);
+
+        verify(delegate, times(2)).findByNumbersAndOperation(eq("1.0,2.0"), eq(ADDITION));
+    }
+
+    @Test
+    void shouldCacheSavedResult() {
+        String numbers = "10.0,20.0,30.0";
+        Result result = getResultWithTestData(ADDITION, 60.0, numbers);
+        given(delegate.save(eq(result))).willReturn(result);
+
+        dataStore.save(result);
+        Optional<Result> found = dataStore.findByNumbersAndOperation(numbers, ADDITION);
+
+        assertThat(found).contains(result);
+        verify(delegate, times(0)).findByNumbersAndOperation(anyString(), any());
+    }
+
+    @Test
+    void shouldKeepSeparateEntriesPerOperation() {
+        String numbers = "2.0,3.0";
+        given(delegate.findByNumbersAndOperation(eq(numbers), eq(ADDITION))).willReturn(Optional.of(getResultWithTestData(ADDITION, 5.0, numbers)));
+        given(delegate.findByNumbersAndOperation(eq(numbers), eq(DIVISION))).willReturn(Optional.of(getResultWithTestData(DIVISION, 2.0 / 3.0, numbers)));
+
+        dataStore.findByNumbersAndOperation(numbers, ADDITION);
+        Optional<Result> division = dataStore.findByNumbersAndOperation(numbers, DIVISION);
+
+        assertThat(division).isPresent();
+        assertThat(division.get().getResult()).isEqualTo(2.0 / 3.0);
+    }
+
+    @Test
+    void shouldOnlyAskDelegateForKeysMissingFromCache() {
+        Result cached = getResultWithTestData(ADDITION, 3.0, "1.0,2.0");
+        Result stored = getResultWithTestData(ADDITION, 7.0, "3.0,4.0");
+        given(delegate.save(eq(cached))).willReturn(cached);
+        given(delegate.findAllByKeys(eq(List.of(stored.key())))).willReturn(List.of(stored));
+        dataStore.save(cached);
+
+        List<Result> results = dataStore.findAllByKeys(List.of(cached.key(), stored.key()));
+
+        assertThat(results).containsExactlyInAnyOrder(cached, stored);
+        verify(delegate).findAllByKeys(eq(List.of(stored.key())));
+        assertThat(dataStore.findByNumbersAndOperation("3.0,4.0", ADDITION)).contains(stored);
+    }
+
+    @Test
+    void shouldEvictWhenMaximumSizeIsReached() {
+        for (int i = 0; i < 10; i++) {
+            String numbers = i + ".0";
+            Result result = getResultWithTestData(ADDITION, i, numbers);
+            given(delegate.save(eq(result))).willReturn(result);
+            dataStore.save(result);
+        }
+        dataStore.cache().cleanUp();
+
+        assertThat(dataStore.cache().estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(dataStore.stats().evictionCount()).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    void shouldReportEveryResultHandedOutToAccessTracker() {
+        ResultAccessTracker tracker = new ResultAccessTracker();
+        CachingDataStore tracked = new CachingDataStore(delegate, 2, tracker);
+        Result stored = Result.builder().id(7).operation(ADDITION).result(3.0).numbers("1.0,2.0").build();
+        given(delegate.findByNumbersAndOperation(eq("1.0,2.0"), eq(ADDITION))).willReturn(Optional.of(stored));
+        given(delegate.findById(eq(8))).willReturn(Optional.of(Result.builder().id(8).operation(ADDITION).build()));
+
+        tracked.findByNumbersAndOperation("1.0,2.0", ADDITION);
+        assertThat(tracker.drain()).containsExactly(7);
+
+        tracked.findByNumbersAndOperation("1.0,2.0", ADDITION);
+        tracked.findById(8);
+        assertThat(tracker.drain()).containsExactlyInAnyOrder(7, 8);
+        assertThat(tracker.drain()).isEmpty();
+    }
+
+    private Result getResultWithTestData(Operation operation, double result, String numbers) {
+        return Result.builder()
+                .operation(operation)
+                .result(result)
+                .numbers(numbers)
+                .build();
+    }
+}
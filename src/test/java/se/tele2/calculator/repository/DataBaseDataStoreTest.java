@@ -7,14 +7,18 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -63,6 +67,39 @@ class DataBaseDataStoreTest {
         verify(repository).save(eq(result));
     }
 
+    @Test
+    void shouldReturnStoredResultWhenItWasStoredInTheMeantime() {
+        Result stored = Result.builder().id(1).operation(DIVISION).result(5.0).numbers("30.0,2.0,3.0").build();
+        Result result = Result.builder().operation(DIVISION).result(5.0).numbers("30.0,2.0,3.0").build();
+        given(repository.save(eq(result))).willThrow(new DataIntegrityViolationException("ux_result_digest"));
+        given(repository.findByNumbersAndOperation("30.0,2.0,3.0", DIVISION)).willReturn(Optional.of(stored));
+
+        assertThat(dataStore.save(result)).isSameAs(stored);
+    }
+
+    @Test
+    void shouldSaveOneByOneWhenBatchHoldsStoredResult() {
+        Result stored = Result.builder().id(1).operation(DIVISION).result(5.0).numbers("30.0,2.0,3.0").build();
+        Result existing = Result.builder().operation(DIVISION).result(5.0).numbers("30.0,2.0,3.0").build();
+        Result fresh = Result.builder().operation(DIVISION).result(2.0).numbers("4.0,2.0").build();
+        Result saved = Result.builder().id(2).operation(DIVISION).result(2.0).numbers("4.0,2.0").build();
+        given(repository.saveAll(anyList())).willThrow(new DataIntegrityViolationException("ux_result_digest"));
+        given(repository.save(eq(existing))).willThrow(new DataIntegrityViolationException("ux_result_digest"));
+        given(repository.save(eq(fresh))).willReturn(saved);
+        given(repository.findByNumbersAndOperation("30.0,2.0,3.0", DIVISION)).willReturn(Optional.of(stored));
+
+        assertThat(dataStore.saveAll(List.of(existing, fresh))).containsExactly(stored, saved);
+    }
+
+    @Test
+    void shouldRethrowViolationOfResultThatIsNotStored() {
+        Result result = Result.builder().operation(DIVISION).result(5.0).numbers("30.0,2.0,3.0").build();
+        given(repository.save(eq(result))).willThrow(new DataIntegrityViolationException("not null"));
+        given(repository.findByNumbersAndOperation(anyString(), any())).willReturn(Optional.empty());
+
+        assertThatExceptionOfType(DataIntegrityViolationException.class).isThrownBy(() -> dataStore.save(result));
+    }
+
     @Test
     void shouldReturnResultWithNumbersAndOperation() {
         String numbers = "30.0,2.0,3.0";
@@ -0,0 +1,54 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Starts on a database with the schema from before the digest and inputs columns, the way an existing installation
+ * is upgraded, and looks up a row stored back then.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=update")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ResultDigestMigration.class, ResultInputsMigration.class})
+class LegacyResultLookupTest {
+
+    private static final String URL = "jdbc:h2:mem:legacy;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ResultRepository repository;
+
+    @DynamicPropertySource
+    static void legacyDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE result (id INTEGER GENERATED BY DEFAULT AS IDENTITY, numbers VARCHAR(255), "
+                    + "operation VARCHAR(255), result DOUBLE NOT NULL, PRIMARY KEY (id))");
+            statement.execute("INSERT INTO result (id, numbers, operation, result) VALUES (7, '10.0,20.0,30.0', 'ADDITION', 60.0)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void shouldFindResultStoredBeforeTheMigrationOnceStarted() {
+        Optional<Result> result = repository.findByNumbersAndOperation("10.0,20.0,30.0", Operation.ADDITION);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().getId()).isEqualTo(7);
+        assertThat(result.get().getResult()).isEqualTo(60.0);
+    }
+}
@@ -0,0 +1,156 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+class MappedDataStoreTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private MappedDataStore dataStore;
+
+    @AfterEach
+    void tearDown() {
+        dataStore.close();
+    }
+
+    @Test
+    void shouldFindSavedResultByNumbersAndOperationAndById() {
+        dataStore = open(16);
+
+        Result saved = dataStore.save(getResultWithTestData(ADDITION, 3.0, "1.0,2.0"));
+        Optional<Result> byNumbers = dataStore.findByNumbersAndOperation("1.0,2.0", ADDITION);
+        Optional<Result> byId = dataStore.findById(saved.getId());
+
+        assertThat(saved.getId()).isEqualTo(1);
+        assertThat(byNumbers).get().usingRecursiveComparison().isEqualTo(saved);
+        assertThat(byId).get().usingRecursiveComparison().isEqualTo(saved);
+        assertThat(dataStore.findByNumbersAndOperation("1.0,2.0", MULTIPLICATION)).isEmpty();
+        assertThat(dataStore.findById(2)).isEmpty();
+        assertThat(dataStore.findById(0)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnStoredResultWhenSavedAgain() {
+        dataStore = open(16);
+
+        Result first = dataStore.save(getResultWithTestData(DIVISION, 0.5, "1.0,2.0"));
+        Result second = dataStore.save(getResultWithTestData(DIVISION, 0.5, "1.0,2.0"));
+
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(dataStore.findById(2)).isEmpty();
+    }
+
+    @Test
+    void shouldRecoverIndexByReplayingFile() {
+        dataStore = open(16);
+        List<Result> saved = dataStore.saveAll(results(200));
+        dataStore.close();
+
+        dataStore = open(16);
+        Result next = dataStore.save(getResultWithTestData(ADDITION, -1.0, "-1.0"));
+
+        for (Result result : saved) {
+            assertThat(dataStore.findByNumbersAndOperation(result.getNumbers(), result.getOperation()))
+                    .get().usingRecursiveComparison().isEqualTo(result);
+            assertThat(dataStore.findById(result.getId())).get().usingRecursiveComparison().isEqualTo(result);
+        }
+        assertThat(next.getId()).isEqualTo(201);
+    }
+
+    @Test
+    void shouldContinueInNextSegmentWhenRecordDoesNotFit() {
+        dataStore = open(16);
+        String numbers = "1.0,".repeat(900) + "1.0";
+
+        Result first = dataStore.save(getResultWithTestData(ADDITION, 901.0, numbers));
+        Result second = dataStore.save(getResultWithTestData(MULTIPLICATION, 1.0, numbers));
+        dataStore.close();
+        dataStore = open(16);
+
+        assertThat(dataStore.findById(first.getId())).map(Result::getNumbers).contains(numbers);
+        assertThat(dataStore.findById(second.getId())).map(Result::getOperation).contains(MULTIPLICATION);
+    }
+
+    @Test
+    void shouldGrowIndexBeyondInitialCapacity() {
+        dataStore = open(1);
+        List<Result> results = results(1000);
+
+        dataStore.saveAll(results);
+        List<ResultKey> keys = results.stream().map(Result::key).toList();
+
+        assertThat(dataStore.findAllByKeys(keys)).hasSize(1000);
+        assertThat(dataStore.findById(1000)).map(Result::getNumbers).contains("999.0");
+    }
+
+    @Test
+    void shouldRejectNumbersLargerThanSegment() {
+        dataStore = open(16);
+        String numbers = "1.0,".repeat(SEGMENT_SIZE) + "1.0";
+
+        assertThatThrownBy(() -> dataStore.save(getResultWithTestData(ADDITION, 1.0, numbers)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldWriteOperationCodeAndRejectUnknownCodeOnReplay() throws IOException {
+        dataStore = open(16);
+        dataStore.save(getResultWithTestData(DIVISION, 0.5, "1.0,2.0"));
+        dataStore.close();
+        Path file = directory.resolve("results.dat");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer code = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(code, 32);
+            assertThat(code.getInt(0)).isEqualTo(3);
+            channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 99), 32);
+        }
+
+        assertThatThrownBy(() -> open(16))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Record at offset 0 has unknown operation code 99");
+    }
+
+    private MappedDataStore open(int initialCapacity) {
+        return new MappedDataStore(directory.resolve("results.dat"), SEGMENT_SIZE, initialCapacity);
+    }
+
+    private static List<Result> results(int count) {
+        List<Result> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(getResultWithTestData(ADDITION, i, i + ".0"));
+        }
+        return results;
+    }
+
+    private static Result getResultWithTestData(Operation operation, double value, String numbers) {
+        return Result.builder()
+                .operation(operation)
+                .result(value)
+                .numbers(numbers)
+                .build();
+    }
+}
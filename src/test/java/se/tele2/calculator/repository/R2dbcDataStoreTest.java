@@ -0,0 +1,94 @@
+package se.tele2.calculator.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.test.StepVerifier;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+
+/**
+ * Runs against the schema Hibernate creates, JDBC and R2DBC share the named in-memory database.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:r2dbc-data-store;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class R2dbcDataStoreTest {
+
+    @Autowired
+    private ResultRepository repository;
+
+    private final R2dbcDataStore dataStore = new R2dbcDataStore(DatabaseClient.create(
+            ConnectionFactories.get("r2dbc:h2:mem://sa@/r2dbc-data-store?DB_CLOSE_DELAY=-1")));
+
+    @Test
+    void shouldSaveResultWithIdAndDigest() {
+        Result saved = dataStore.save(getResultWithTestData(ADDITION, 6.5, "1.0,2.0,3.5")).block();
+
+        assertThat(saved).isNotNull();
+        assertThat(saved.getId()).isNotNull();
+        Result stored = repository.findById(saved.getId()).orElseThrow();
+        assertThat(stored.getNumbers()).isEqualTo("1.0,2.0,3.5");
+        assertThat(stored.key().digest().high()).isEqualTo(stored.getDigestHigh());
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0,3.5", ADDITION)).isPresent();
+    }
+
+    @Test
+    void shouldFindResultSavedThroughJpa() {
+        Result saved = repository.save(getResultWithTestData(DIVISION, 5.0, "30.0,2.0,3.0"));
+
+        StepVerifier.create(dataStore.findByNumbersAndOperation("30.0,2.0,3.0", DIVISION))
+                .assertNext(result -> assertThat(result.getResult()).isEqualTo(5.0))
+                .verifyComplete();
+        StepVerifier.create(dataStore.findById(saved.getId()))
+                .assertNext(result -> assertThat(result.key()).isEqualTo(new ResultKey("30.0,2.0,3.0", DIVISION)))
+                .verifyComplete();
+        StepVerifier.create(dataStore.findByNumbersAndOperation("30.0,2.0,3.0", ADDITION))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnStoredResultWhenSavingDuplicate() {
+        Result first = dataStore.save(getResultWithTestData(ADDITION, 7.0, "3.0,4.0")).block();
+        Result second = dataStore.save(getResultWithTestData(ADDITION, 7.0, "3.0,4.0")).block();
+
+        assertThat(second).isNotNull();
+        assertThat(second.getId()).isEqualTo(first.getId());
+    }
+
+    @Test
+    void shouldFindAllByKeys() {
+        dataStore.saveAll(List.of(
+                getResultWithTestData(ADDITION, 11.0, "5.0,6.0"),
+                getResultWithTestData(DIVISION, 2.0, "8.0,4.0"))).blockLast();
+
+        List<Result> results = dataStore.findAllByKeys(List.of(
+                new ResultKey("5.0,6.0", ADDITION),
+                new ResultKey("8.0,4.0", DIVISION),
+                new ResultKey("8.0,4.0", ADDITION))).collectList().block();
+
+        assertThat(results).extracting(Result::key).containsExactlyInAnyOrder(
+                new ResultKey("5.0,6.0", ADDITION),
+                new ResultKey("8.0,4.0", DIVISION));
+    }
+
+    private Result getResultWithTestData(Operation operation, double result, String numbers) {
+        return Result.builder()
+                .operation(operation)
+                .result(result)
+                .numbers(numbers)
+                .build();
+    }
+}
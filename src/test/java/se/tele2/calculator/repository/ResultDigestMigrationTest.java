@@ -0,0 +1,50 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The migrations alter the table, which commits the rows the test inserted, so the context is not shared.
+ */
+@DataJpaTest
+@DirtiesContext
+@Import({ResultDigestMigration.class, ResultInputsMigration.class})
+class ResultDigestMigrationTest {
+
+    @Autowired
+    private ResultRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResultDigestMigration migration;
+
+    @Autowired
+    private ResultInputsMigration inputsMigration;
+
+    @Test
+    void shouldBackfillDigestOfExistingResults() {
+        jdbcTemplate.execute("ALTER TABLE result ADD COLUMN numbers VARCHAR(255)");
+        jdbcTemplate.update("INSERT INTO result (id, operation, result, numbers) VALUES (100, 'ADDITION', 60.0, '10.0,20.0,30.0')");
+        jdbcTemplate.update("INSERT INTO result (id, operation, result, numbers) VALUES (101, 'ADDITION', 60.0, '10.0,20.0,30.0')");
+
+        migration.run();
+        inputsMigration.run();
+
+        Optional<Result> result = repository.findByNumbersAndOperation("10.0,20.0,30.0", Operation.ADDITION);
+        assertThat(result).isPresent();
+        assertThat(result.get().getId()).isEqualTo(100);
+        assertThat(repository.findById(101)).isPresent();
+    }
+}
@@ -0,0 +1,65 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.tele2.calculator.config.ExportProperties;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultInputs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ResultExporterTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ResultExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        for (int id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO result (id, operation, result, inputs) VALUES (?, 'ADDITION', ?, ?)",
+                    id * 10, id * 3.0, ResultInputs.encode(id + ".0," + (id * 2) + ".0"));
+        }
+        exporter = new ResultExporter(jdbcTemplate, new ExportProperties(2, 2, Duration.ofHours(1)));
+    }
+
+    @Test
+    void shouldExportAllResultsInIdOrderOverSeveralPages() {
+        List<Result> exported = new ArrayList<>();
+
+        long count = exporter.export(0, exported::add);
+
+        assertThat(count).isEqualTo(5);
+        assertThat(exported).extracting(Result::getId).containsExactly(10, 20, 30, 40, 50);
+        assertThat(exported.get(1).getOperation()).isEqualTo(Operation.ADDITION);
+        assertThat(exported.get(1).getResult()).isEqualTo(6.0);
+        assertThat(exported.get(1).getNumbers()).isEqualTo("2.0,4.0");
+    }
+
+    @Test
+    void shouldResumeAfterGivenId() {
+        List<Result> exported = new ArrayList<>();
+
+        long count = exporter.export(25, exported::add);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(exported).extracting(Result::getId).containsExactly(30, 40, 50);
+    }
+
+    @Test
+    void shouldExportNothingAfterLastId() {
+        assertThat(exporter.export(50, result -> {
+            throw new AssertionError("Nothing to export");
+        })).isZero();
+    }
+}
@@ -0,0 +1,203 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import se.tele2.calculator.config.ExportProperties;
+import se.tele2.calculator.config.ImportProperties;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultInputs;
+import se.tele2.calculator.service.ResultExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ResultImporterTest {
+
+    @Autowired
+    private ResultRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @TempDir
+    private Path directory;
+
+    private ResultImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new ResultImporter(jdbcTemplate, new ImportProperties(2, 3), 128);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void shouldImportCsvAndSkipStoredResults() throws IOException {
+        Result stored = repository.save(Result.builder().operation(Operation.SUBTRACTION).result(-1.0).numbers("1.0,2.0").build());
+        Path file = Files.writeString(directory.resolve("results.csv"), """
+                id,operation,result,numbers
+                1,ADDITION,3.0,"1.0,2.0"
+                2,DIVISION,0.5,"1.0,2.0"
+                3,ADDITION,3.0,"1.0,2.0"
+                4,SUBTRACTION,-1.0,"1.0,2.0"
+                5,MULTIPLICATION,24.0,"1.0,2.0,3.0,4.0"
+                """);
+
+        ImportReport report = importer.importFile(file);
+
+        assertThat(report.rows()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.skipped()).isEqualTo(2);
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0", Operation.DIVISION))
+                .hasValueSatisfying(result -> assertThat(result.getResult()).isEqualTo(0.5));
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0,3.0,4.0", Operation.MULTIPLICATION)).isPresent();
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0", Operation.SUBTRACTION))
+                .hasValueSatisfying(result -> assertThat(result.getId()).isEqualTo(stored.getId()));
+    }
+
+    @Test
+    void shouldSkipResultStoredWhileImporting() throws Exception {
+        Path file = Files.writeString(directory.resolve("results.csv"), """
+                1,ADDITION,3.0,"1.0,2.0"
+                2,DIVISION,0.5,"1.0,2.0"
+                3,SUBTRACTION,-1.0,"1.0,2.0"
+                """);
+        ResultDigest digest = ResultDigest.of("1.0,2.0", Operation.DIVISION);
+        ImportReport report;
+        try (Connection live = dataSource.getConnection()) {
+            live.setAutoCommit(false);
+            try (PreparedStatement insert = live.prepareStatement(
+                    "INSERT INTO result (id, operation, result, inputs, digest_high, digest_low) VALUES (1000000, ?, 0.75, ?, ?, ?)")) {
+                insert.setString(1, Operation.DIVISION.name());
+                insert.setBytes(2, ResultInputs.encode("1.0,2.0"));
+                insert.setLong(3, digest.high());
+                insert.setLong(4, digest.low());
+                insert.executeUpdate();
+            }
+
+            FutureTask<ImportReport> importing = new FutureTask<>(() -> importer.importFile(file));
+            Thread thread = new Thread(importing, "import");
+            thread.start();
+            awaitBlocked(thread);
+            live.commit();
+            report = importing.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.skipped()).isEqualTo(1);
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0", Operation.DIVISION))
+                .hasValueSatisfying(result -> assertThat(result.getResult()).isEqualTo(0.75));
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0", Operation.ADDITION)).isPresent();
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0", Operation.SUBTRACTION)).isPresent();
+    }
+
+    /**
+     * Waits until the import retries its insert against the uncommitted row, so the row is committed between the check
+     * of the insert and the insert itself. H2 retries the statement until its lock timeout rather than blocking, rolling
+     * the statement back to its savepoint on every try.
+     */
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            if (Arrays.stream(thread.getStackTrace())
+                    .anyMatch(frame -> frame.getMethodName().equals("rollbackToSavepoint"))) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        throw new AssertionError("Import never retried its insert against the uncommitted result");
+    }
+
+    @Test
+    void shouldImportNdjsonWithIdsThatDoNotCollideWithSavedResults() throws IOException {
+        Path file = Files.writeString(directory.resolve("results.ndjson"), """
+                {"id":8,"operation":"ADDITION","result":3.0,"numbers":"1.0,2.0"}
+                {"id":9,"operation":"DIVISION","result":0.25,"numbers":"1.0,2.0,2.0"}
+
+                {"id":10,"operation":"SUBTRACTION","result":1.0,"numbers":null}
+                """);
+
+        ImportReport report = importer.importFile(file);
+        repository.save(Result.builder().operation(Operation.ADDITION).result(7.0).numbers("3.0,4.0").build());
+
+        assertThat(report.rows()).isEqualTo(3);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.skipped()).isEqualTo(1);
+        List<Result> results = repository.findAll();
+        assertThat(results).hasSize(3);
+        assertThat(results).extracting(Result::getId).doesNotHaveDuplicates();
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0,2.0", Operation.DIVISION)).isPresent();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application/x-ndjson", "text/csv"})
+    void shouldImportExportedResultsThatAreNotFinite(String format) throws IOException {
+        repository.save(Result.builder().operation(Operation.MULTIPLICATION).result(Double.POSITIVE_INFINITY).numbers("1.0E200,1.0E200").build());
+        repository.save(Result.builder().operation(Operation.MULTIPLICATION).result(Double.NEGATIVE_INFINITY).numbers("-1.0E200,1.0E200").build());
+        repository.save(Result.builder().operation(Operation.ADDITION).result(Double.NaN).numbers("-Infinity,Infinity").build());
+        repository.save(Result.builder().operation(Operation.DIVISION).result(0.5).numbers("1.0,2.0").build());
+        Path file = directory.resolve("results");
+        try (OutputStream body = Files.newOutputStream(file)) {
+            new ResultExportService(new ResultExporter(jdbcTemplate, new ExportProperties(2, 2, Duration.ofHours(1))))
+                    .export(body, MediaType.parseMediaType(format), 0);
+        }
+        repository.deleteAll();
+
+        ImportReport report = importer.importFile(file);
+
+        assertThat(report.imported()).isEqualTo(4);
+        assertThat(repository.findAll()).extracting(Result::getOperation, Result::getResult, Result::getNumbers)
+                .containsExactlyInAnyOrder(
+                        tuple(Operation.MULTIPLICATION, Double.POSITIVE_INFINITY, "1.0E200,1.0E200"),
+                        tuple(Operation.MULTIPLICATION, Double.NEGATIVE_INFINITY, "-1.0E200,1.0E200"),
+                        tuple(Operation.ADDITION, Double.NaN, "-Infinity,Infinity"),
+                        tuple(Operation.DIVISION, 0.5, "1.0,2.0"));
+    }
+
+    @Test
+    void shouldRejectLineThatIsNotAResult() throws IOException {
+        Path file = Files.writeString(directory.resolve("results.csv"), """
+                1,ADDITION,3.0,"1.0,2.0"
+                2,POWER,8.0,"2.0,3.0"
+                """);
+
+        assertThatThrownBy(() -> importer.importFile(file))
+                .isInstanceOf(InvalidInputsException.class)
+                .hasMessage("Line 2 is not a result");
+    }
+}
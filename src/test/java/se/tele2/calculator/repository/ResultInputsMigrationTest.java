@@ -0,0 +1,81 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultInputs;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The migrations alter the table, which commits the rows the test inserted, so no two tests share a context.
+ */
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({ResultDigestMigration.class, ResultInputsMigration.class})
+class ResultInputsMigrationTest {
+
+    @Autowired
+    private ResultRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResultInputsMigration migration;
+
+    @Test
+    void shouldMoveInputsOutOfTheNumbersColumn() {
+        jdbcTemplate.execute("ALTER TABLE result ADD COLUMN numbers VARCHAR(" + Integer.MAX_VALUE + ")");
+        insert(100, "10.0,20.0,30.0", Operation.ADDITION);
+        insert(101, "(a+b)*c;1.0,2.0,3.0", Operation.EXPRESSION);
+
+        migration.run();
+
+        Optional<Result> numbers = repository.findByNumbersAndOperation("10.0,20.0,30.0", Operation.ADDITION);
+        assertThat(numbers).isPresent();
+        assertThat(numbers.get().getId()).isEqualTo(100);
+        Optional<Result> expression = repository.findByNumbersAndOperation("(a+b)*c;1.0,2.0,3.0", Operation.EXPRESSION);
+        assertThat(expression).isPresent();
+        assertThat(expression.get().getId()).isEqualTo(101);
+        assertThat(migration.hasNumbersColumn()).isTrue();
+        assertThat(migration.mismatches(0, Integer.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    void shouldFindInputsMissingOrNotDecodingToTheNumbers() {
+        jdbcTemplate.execute("ALTER TABLE result ADD COLUMN numbers VARCHAR(" + Integer.MAX_VALUE + ")");
+        insert(100, "10.0,20.0,30.0", Operation.ADDITION);
+        insert(101, "1.0,2.0", Operation.ADDITION);
+        insert(102, "3.0,4.0", Operation.ADDITION);
+        migration.run();
+        jdbcTemplate.update("UPDATE result SET inputs = ? WHERE id = 101", (Object) ResultInputs.encode("1.0,3.0"));
+        jdbcTemplate.update("UPDATE result SET inputs = NULL WHERE id = 102");
+
+        assertThat(migration.mismatches(0, Integer.MAX_VALUE)).containsExactly(101, 102);
+        assertThat(migration.mismatches(101, Integer.MAX_VALUE)).containsExactly(102);
+    }
+
+    @Test
+    void shouldDoNothingWithoutNumbersColumn() {
+        repository.save(Result.builder().operation(Operation.ADDITION).result(3.0).numbers("1.0,2.0").build());
+
+        migration.run();
+
+        assertThat(repository.findByNumbersAndOperation("1.0,2.0", Operation.ADDITION)).isPresent();
+    }
+
+    private void insert(int id, String numbers, Operation operation) {
+        ResultDigest digest = ResultDigest.of(numbers, operation);
+        jdbcTemplate.update("INSERT INTO result (id, operation, result, numbers, digest_high, digest_low) VALUES (?, ?, 60.0, ?, ?, ?)",
+                id, operation.name(), numbers, digest.high(), digest.low());
+    }
+}
@@ -0,0 +1,66 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultInputs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The migrations alter the table, which commits the rows the test inserted, so no two tests share a context.
+ */
+@DataJpaTest(properties = "calculator.migration.drop-numbers=true")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@Import({ResultDigestMigration.class, ResultInputsMigration.class, ResultNumbersDropMigration.class})
+class ResultNumbersDropMigrationTest {
+
+    @Autowired
+    private ResultRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResultInputsMigration inputsMigration;
+
+    @Autowired
+    private ResultNumbersDropMigration migration;
+
+    @Test
+    void shouldDropNumbersOnceEveryResultIsVerified() {
+        jdbcTemplate.execute("ALTER TABLE result ADD COLUMN numbers VARCHAR(" + Integer.MAX_VALUE + ")");
+        insert(100, "10.0,20.0,30.0", Operation.ADDITION);
+        inputsMigration.run();
+
+        migration.run();
+
+        assertThat(inputsMigration.hasNumbersColumn()).isFalse();
+        assertThat(repository.findByNumbersAndOperation("10.0,20.0,30.0", Operation.ADDITION)).isPresent();
+    }
+
+    @Test
+    void shouldKeepNumbersWhenInputsDoNotDecodeToThem() {
+        jdbcTemplate.execute("ALTER TABLE result ADD COLUMN numbers VARCHAR(" + Integer.MAX_VALUE + ")");
+        insert(100, "10.0,20.0,30.0", Operation.ADDITION);
+        inputsMigration.run();
+        jdbcTemplate.update("UPDATE result SET inputs = ? WHERE id = 100", (Object) ResultInputs.encode("10.0,20.0"));
+
+        assertThatThrownBy(migration::run)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("result.numbers is kept");
+        assertThat(inputsMigration.hasNumbersColumn()).isTrue();
+    }
+
+    private void insert(int id, String numbers, Operation operation) {
+        ResultDigest digest = ResultDigest.of(numbers, operation);
+        jdbcTemplate.update("INSERT INTO result (id, operation, result, numbers, digest_high, digest_low) VALUES (?, ?, 60.0, ?, ?, ?)",
+                id, operation.name(), numbers, digest.high(), digest.low());
+    }
+}
@@ -5,11 +5,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultDigest;
+import se.tele2.calculator.model.ResultKey;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static se.tele2.calculator.model.Operation.ADDITION;
 import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
 
 
 @DataJpaTest
@@ -34,4 +39,37 @@ class ResultRepositoryTest {
         assertThat(byNumbersAndOperation.get().getOperation()).isEqualTo(Operation.DIVISION);
         assertThat(byNumbersAndOperation.get().getResult()).isEqualTo(5.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldStoreDigestOfNumbersAndOperation() {
+        String numbers = "2.0,3.0,4.0";
+        Result saved = repository.save(Result.builder()
+                .operation(MULTIPLICATION)
+                .result(24.0)
+                .numbers(numbers)
+                .build());
+        ResultDigest digest = ResultDigest.of(numbers, MULTIPLICATION);
+
+        assertThat(saved.getDigestHigh()).isEqualTo(digest.high());
+        assertThat(saved.getDigestLow()).isEqualTo(digest.low());
+        assertThat(repository.findByNumbersAndOperation(numbers, MULTIPLICATION)).isPresent();
+        assertThat(repository.findByNumbersAndOperation(numbers, DIVISION)).isEmpty();
+        assertThat(repository.findByNumbersAndOperation("2.0,3.0", MULTIPLICATION)).isEmpty();
+    }
+
+    @Test
+    void shouldFindAllResultsByKeys() {
+        repository.saveAll(List.of(
+                Result.builder().operation(ADDITION).result(3.0).numbers("1.0,2.0").build(),
+                Result.builder().operation(MULTIPLICATION).result(2.0).numbers("1.0,2.0").build(),
+                Result.builder().operation(ADDITION).result(7.0).numbers("3.0,4.0").build()));
+
+        List<Result> results = repository.findAllByKeys(List.of(
+                new ResultKey("1.0,2.0", ADDITION),
+                new ResultKey("3.0,4.0", ADDITION),
+                new ResultKey("5.0,6.0", ADDITION)));
+
+        assertThat(results).extracting(Result::key)
+                .containsExactlyInAnyOrder(new ResultKey("1.0,2.0", ADDITION), new ResultKey("3.0,4.0", ADDITION));
+    }
+}
@@ -0,0 +1,109 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.tele2.calculator.config.RetentionProperties;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+
+@DataJpaTest
+class ResultRetentionTest {
+
+    private static final long NOW = 1_800_000_000_000L;
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    @Autowired
+    private ResultRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ResultAccessTracker tracker = new ResultAccessTracker();
+    private CachingDataStore dataStore;
+    private ResultRetention retention;
+
+    @AfterEach
+    void tearDown() {
+        retention.shutdown();
+    }
+
+    @Test
+    void shouldDeleteLeastRecentlyUsedResultsBeyondMaxRows() throws InterruptedException {
+        start(Map.of(ADDITION, new RetentionProperties.Limits(3L, null)));
+        int[] ids = new int[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store(ADDITION, i + ".0", NOW - (10 - i) * HOUR);
+        }
+        int division = store(DIVISION, "1.0", NOW - 100 * HOUR);
+        dataStore.findById(ids[0]);
+
+        retention.run();
+
+        assertThat(repository.findAll()).extracting(Result::getId)
+                .containsExactlyInAnyOrder(ids[0], ids[3], ids[4], division);
+        assertThat(lastAccess(ids[0])).isEqualTo(NOW);
+    }
+
+    @Test
+    void shouldDeleteResultsNotAccessedWithinTtl() throws InterruptedException {
+        start(Map.of(ADDITION, new RetentionProperties.Limits(null, Duration.ofHours(1))));
+        store(ADDITION, "1.0,2.0", NOW - 2 * HOUR);
+        int recent = store(ADDITION, "3.0,4.0", NOW - HOUR / 2);
+        assertThat(dataStore.findByNumbersAndOperation("1.0,2.0", ADDITION)).isPresent();
+        tracker.drain();
+
+        retention.run();
+
+        assertThat(repository.findAll()).extracting(Result::getId).containsExactly(recent);
+        assertThat(dataStore.findByNumbersAndOperation("1.0,2.0", ADDITION)).isEmpty();
+    }
+
+    @Test
+    void shouldStartTtlOfResultsStoredBeforeAccessWasTracked() throws InterruptedException {
+        start(Map.of(ADDITION, new RetentionProperties.Limits(null, Duration.ofHours(1))));
+        int untracked = store(ADDITION, "1.0,2.0", NOW);
+        for (int i = 0; i < 3; i++) {
+            store(ADDITION, i + ".0", NOW);
+        }
+        jdbcTemplate.update("UPDATE result SET last_access = NULL");
+
+        retention.run();
+
+        assertThat(repository.count()).isEqualTo(4);
+        assertThat(lastAccess(untracked)).isEqualTo(NOW);
+    }
+
+    private void start(Map<Operation, RetentionProperties.Limits> limits) {
+        dataStore = new CachingDataStore(new DataBaseDataStore(repository), 100, tracker);
+        retention = new ResultRetention(jdbcTemplate, dataStore, tracker,
+                new RetentionProperties(true, Duration.ofHours(1), 2, Duration.ZERO, limits),
+                Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+    }
+
+    private int store(Operation operation, String numbers, long lastAccess) {
+        Result result = repository.saveAndFlush(Result.builder()
+                .operation(operation)
+                .result(1.0)
+                .numbers(numbers)
+                .build());
+        jdbcTemplate.update("UPDATE result SET last_access = ? WHERE id = ?", lastAccess, result.getId());
+        return result.getId();
+    }
+
+    private Long lastAccess(int id) {
+        return jdbcTemplate.queryForObject("SELECT last_access FROM result WHERE id = ?", Long.class, id);
+    }
+}
@@ -0,0 +1,39 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import se.tele2.calculator.model.Result;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.tele2.calculator.model.Operation.ADDITION;
+
+@DataJpaTest
+@Import(ResultSequenceMigration.class)
+class ResultSequenceMigrationTest {
+
+    @Autowired
+    private ResultRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResultSequenceMigration migration;
+
+    @Test
+    void shouldHandOutIdsAfterTheHighestExistingId() {
+        jdbcTemplate.update("INSERT INTO result (id, operation, result) VALUES (500, 'ADDITION', 3.0)");
+
+        migration.run(null);
+        Result saved = repository.save(Result.builder()
+                .operation(ADDITION)
+                .result(7.0)
+                .numbers("3.0,4.0")
+                .build());
+
+        assertThat(saved.getId()).isGreaterThan(500);
+    }
+}
@@ -0,0 +1,161 @@
+package se.tele2.calculator.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+@ExtendWith(SpringExtension.class)
+class WriteBehindDataStoreTest {
+
+    private static final Duration LONG = Duration.ofMinutes(1);
+
+    @MockBean
+    private DataBaseDataStore delegate;
+
+    private WriteBehindDataStore dataStore;
+
+    @AfterEach
+    void tearDown() {
+        if (dataStore != null) {
+            dataStore.shutdown();
+        }
+    }
+
+    @Test
+    void shouldServeQueuedResultBeforeItIsWritten() {
+        dataStore = new WriteBehindDataStore(delegate, 10, LONG, 10, LONG);
+        Result result = getResultWithTestData(ADDITION, 3.0, "1.0,2.0");
+
+        Result saved = dataStore.save(result);
+        Optional<Result> found = dataStore.findByNumbersAndOperation("1.0,2.0", ADDITION);
+
+        assertThat(saved).isSameAs(result);
+        assertThat(found).containsSame(result);
+        assertThat(dataStore.findAllByKeys(List.of(result.key()))).containsExactly(result);
+        verify(delegate, never()).saveAll(anyList());
+        verify(delegate, never()).findByNumbersAndOperation(anyString(), any());
+    }
+
+    @Test
+    void shouldFlushWhenBatchIsFull() {
+        dataStore = new WriteBehindDataStore(delegate, 2, LONG, 10, LONG);
+
+        dataStore.save(getResultWithTestData(ADDITION, 3.0, "1.0,2.0"));
+        dataStore.save(getResultWithTestData(ADDITION, 7.0, "3.0,4.0"));
+
+        verify(delegate, timeout(5000)).saveAll(argThat(batch -> batch.size() == 2));
+    }
+
+    @Test
+    void shouldFlushAfterInterval() {
+        dataStore = new WriteBehindDataStore(delegate, 100, Duration.ofMillis(20), 10, LONG);
+
+        dataStore.save(getResultWithTestData(ADDITION, 3.0, "1.0,2.0"));
+
+        verify(delegate, timeout(5000)).saveAll(argThat(batch -> batch.size() == 1));
+    }
+
+    @Test
+    void shouldWriteQueuedResultsBeforeLookingUpUnknownId() {
+        dataStore = new WriteBehindDataStore(delegate, 100, LONG, 10, LONG);
+        Result result = getResultWithTestData(MULTIPLICATION, 6.0, "2.0,3.0");
+        given(delegate.findById(anyInt())).willReturn(Optional.empty());
+        given(delegate.saveAll(anyList())).will(invocation -> {
+            given(delegate.findById(eq(1))).willReturn(Optional.of(result));
+            return invocation.getArgument(0);
+        });
+
+        dataStore.save(result);
+        Optional<Result> found = dataStore.findById(1);
+
+        assertThat(found).containsSame(result);
+        assertThat(dataStore.queued()).isZero();
+    }
+
+    @Test
+    void shouldNotWaitForQueuedResultsWhenLookingUpIdOfWrittenResult() {
+        dataStore = new WriteBehindDataStore(delegate, 100, LONG, 10, LONG);
+        given(delegate.findById(anyInt())).willReturn(Optional.empty());
+        given(delegate.saveAll(anyList())).willReturn(List.of(Result.builder()
+                .id(5)
+                .operation(ADDITION)
+                .result(3.0)
+                .numbers("1.0,2.0")
+                .build()));
+        dataStore.save(getResultWithTestData(ADDITION, 3.0, "1.0,2.0"));
+        dataStore.flush();
+        dataStore.save(getResultWithTestData(MULTIPLICATION, 6.0, "2.0,3.0"));
+
+        Optional<Result> found = dataStore.findById(3);
+
+        assertThat(found).isEmpty();
+        assertThat(dataStore.queued()).isEqualTo(1);
+        verify(delegate).saveAll(anyList());
+    }
+
+    @Test
+    void shouldWriteOnCallingThreadWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        dataStore = new WriteBehindDataStore(delegate, 1, LONG, 1, Duration.ofMillis(10));
+        given(delegate.saveAll(anyList())).will(invocation -> {
+            release.await();
+            return invocation.getArgument(0);
+        });
+        Result blocked = getResultWithTestData(ADDITION, 3.0, "1.0,2.0");
+        Result queued = getResultWithTestData(ADDITION, 7.0, "3.0,4.0");
+        Result overflow = getResultWithTestData(ADDITION, 11.0, "5.0,6.0");
+        given(delegate.save(overflow)).willReturn(overflow);
+
+        dataStore.save(blocked);
+        verify(delegate, timeout(5000)).saveAll(anyList());
+        dataStore.save(queued);
+        Result saved = dataStore.save(overflow);
+        release.countDown();
+
+        assertThat(saved).isSameAs(overflow);
+        verify(delegate).save(overflow);
+    }
+
+    @Test
+    void shouldDrainQueueOnShutdown() {
+        dataStore = new WriteBehindDataStore(delegate, 100, LONG, 10, LONG);
+        dataStore.save(getResultWithTestData(ADDITION, 3.0, "1.0,2.0"));
+
+        dataStore.shutdown();
+
+        verify(delegate).saveAll(argThat(batch -> batch.size() == 1));
+        assertThat(dataStore.queued()).isZero();
+        dataStore = null;
+    }
+
+    private Result getResultWithTestData(Operation operation, double result, String numbers) {
+        return Result.builder()
+                .operation(operation)
+                .result(result)
+                .numbers(numbers)
+                .build();
+    }
+}
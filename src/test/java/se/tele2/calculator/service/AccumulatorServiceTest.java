@@ -0,0 +1,153 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.config.AccumulatorProperties;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.model.Accumulator;
+import se.tele2.calculator.model.AccumulatorResponse;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.repository.AccumulatorRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.SUBTRACTION;
+
+@ExtendWith(SpringExtension.class)
+class AccumulatorServiceTest {
+
+    @MockBean
+    private AccumulatorRepository repository;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AccumulatorService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AccumulatorService(repository, new AccumulatorProperties(Duration.ofMinutes(1), Duration.ofMinutes(10)),
+                nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.destroy();
+    }
+
+    @Test
+    void shouldFoldAppendedInputsInOrder() {
+        int id = create(SUBTRACTION);
+
+        AccumulatorResponse created = service.get(id);
+        service.append(id, new double[]{10, 1});
+        AccumulatorResponse response = service.append(id, new double[]{2, 3});
+
+        assertThat(created).isEqualTo(new AccumulatorResponse(id, SUBTRACTION, null, 0));
+        assertThat(response).isEqualTo(new AccumulatorResponse(id, SUBTRACTION, 4.0, 4));
+        assertThat(service.get(id)).isEqualTo(response);
+    }
+
+    @Test
+    void shouldWriteOnlyChangedAccumulatorsOnSnapshot() {
+        int id = create(ADDITION);
+        service.append(id, new double[]{1, 2});
+        service.append(id, new double[]{3});
+
+        service.snapshot();
+        service.snapshot();
+
+        verify(repository, times(1)).updateSnapshot(anyInt(), anyDouble(), anyLong());
+        verify(repository).updateSnapshot(id, 6.0, 3);
+    }
+
+    @Test
+    void shouldRetryFailedSnapshot() {
+        int id = create(ADDITION);
+        service.append(id, new double[]{1});
+        given(repository.updateSnapshot(id, 1.0, 1)).willThrow(new IllegalStateException("down")).willReturn(1);
+
+        service.snapshot();
+        service.snapshot();
+
+        verify(repository, times(2)).updateSnapshot(id, 1.0, 1);
+    }
+
+    @Test
+    void shouldContinueFromStoredSnapshot() {
+        given(repository.findById(7)).willReturn(Optional.of(Accumulator.builder()
+                .id(7)
+                .operation(ADDITION)
+                .result(5.0)
+                .inputs(2)
+                .build()));
+
+        AccumulatorResponse response = service.append(7, new double[]{1});
+
+        assertThat(response).isEqualTo(new AccumulatorResponse(7, ADDITION, 6.0, 3));
+    }
+
+    @Test
+    void shouldWriteAndDropIdleAccumulatorAndLoadItAgain() {
+        int id = create(ADDITION);
+        service.append(id, new double[]{1, 2});
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        service.snapshot();
+
+        assertThat(service.inMemory()).isZero();
+        verify(repository).updateSnapshot(id, 3.0, 2);
+        given(repository.findById(id)).willReturn(Optional.of(Accumulator.builder()
+                .id(id)
+                .operation(ADDITION)
+                .result(3.0)
+                .inputs(2)
+                .build()));
+        assertThat(service.append(id, new double[]{4})).isEqualTo(new AccumulatorResponse(id, ADDITION, 7.0, 3));
+    }
+
+    @Test
+    void shouldRejectWholeAppendWhenDividingByZero() {
+        int id = create(DIVISION);
+        service.append(id, new double[]{8});
+
+        assertThatThrownBy(() -> service.append(id, new double[]{2, 0})).isInstanceOf(ArithmeticException.class);
+        assertThat(service.get(id).result()).isEqualTo(8.0);
+        assertThat(service.get(id).inputs()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldThrowWhenAccumulatorDoesNotExist() {
+        given(repository.findById(any())).willReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.get(1)).isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> service.append(create(ADDITION), new double[0])).isInstanceOf(EmptyInputsException.class);
+        verify(repository, never()).updateSnapshot(anyInt(), anyDouble(), anyLong());
+    }
+
+    private int create(Operation operation) {
+        given(repository.save(any())).willReturn(Accumulator.builder()
+                .id(1)
+                .operation(operation)
+                .build());
+        return service.create(operation).id();
+    }
+}
@@ -0,0 +1,80 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.service.CalculationPlanner.Plan.INLINE;
+import static se.tele2.calculator.service.CalculationPlanner.Plan.STORED;
+
+class CalculationPlannerTest {
+
+    private final CalculationPlanner planner = new CalculationPlanner(true, 8, 1.0);
+
+    @Test
+    void shouldStoreUntilLookupAndCalculationTimesAreKnown() {
+        assertThat(planner.plan(ADDITION, 2)).isEqualTo(STORED);
+
+        planner.lookedUp(ADDITION, 10_000);
+        assertThat(planner.plan(ADDITION, 2)).isEqualTo(STORED);
+
+        planner.calculated(ADDITION, 2, 20);
+        assertThat(planner.plan(ADDITION, 2)).isEqualTo(INLINE);
+    }
+
+    @Test
+    void shouldStoreCalculationsWithMoreThanMaxInputs() {
+        planner.lookedUp(ADDITION, 10_000);
+        planner.calculated(ADDITION, 2, 20);
+
+        assertThat(planner.plan(ADDITION, 8)).isEqualTo(INLINE);
+        assertThat(planner.plan(ADDITION, 9)).isEqualTo(STORED);
+        assertThat(planner.inlineInputs(ADDITION)).isEqualTo(8);
+    }
+
+    @Test
+    void shouldStoreCalculationsExpectedToTakeLongerThanLookup() {
+        planner.lookedUp(DIVISION, 10_000);
+        planner.calculated(DIVISION, 4, 24_000);
+
+        assertThat(planner.plan(DIVISION, 1)).isEqualTo(INLINE);
+        assertThat(planner.plan(DIVISION, 2)).isEqualTo(STORED);
+        assertThat(planner.inlineInputs(DIVISION)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFollowChangingTimes() {
+        planner.lookedUp(ADDITION, 10_000);
+        planner.calculated(ADDITION, 1, 1000);
+        assertThat(planner.plan(ADDITION, 2)).isEqualTo(INLINE);
+
+        for (int i = 0; i < 100; i++) {
+            planner.lookedUp(ADDITION, 100);
+        }
+        assertThat(planner.plan(ADDITION, 2)).isEqualTo(STORED);
+    }
+
+    @Test
+    void shouldCountDecisions() {
+        planner.lookedUp(ADDITION, 10_000);
+        planner.calculated(ADDITION, 2, 20);
+
+        planner.plan(ADDITION, 2);
+        planner.plan(ADDITION, 3);
+        planner.plan(ADDITION, 100);
+
+        assertThat(planner.decisions(ADDITION, INLINE)).isEqualTo(2);
+        assertThat(planner.decisions(ADDITION, STORED)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStoreEverythingWhenDisabled() {
+        CalculationPlanner disabled = new CalculationPlanner(false, 8, 1.0);
+        disabled.lookedUp(ADDITION, 10_000);
+        disabled.calculated(ADDITION, 2, 20);
+
+        assertThat(disabled.plan(ADDITION, 2)).isEqualTo(STORED);
+        assertThat(disabled.inlineInputs(ADDITION)).isZero();
+    }
+}
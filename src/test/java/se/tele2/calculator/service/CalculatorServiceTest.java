@@ -1,5 +1,8 @@
 package se.tele2.calculator.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -7,44 +10,80 @@ import org.mockito.Captor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.config.CalculationConfig;
 import se.tele2.calculator.exception.EmptyInputsException;
 import se.tele2.calculator.exception.NotFoundException;
+import se.tele2.calculator.exception.OverloadedException;
+import se.tele2.calculator.model.BatchItem;
+import se.tele2.calculator.model.BatchRequest;
+import se.tele2.calculator.model.BatchResponse;
 import se.tele2.calculator.model.InputRequest;
 import se.tele2.calculator.model.Operation;
 import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultKey;
 import se.tele2.calculator.model.ResultResponse;
-import se.tele2.calculator.repository.DataBaseDataStore;
+import se.tele2.calculator.repository.DataStore;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static se.tele2.calculator.model.Operation.ADDITION;
 import static se.tele2.calculator.model.Operation.DIVISION;
 import static se.tele2.calculator.model.Operation.MULTIPLICATION;
 import static se.tele2.calculator.model.Operation.SUBTRACTION;
 
 @ExtendWith(SpringExtension.class)
-@Import(CalculatorService.class)
+@Import({CalculatorService.class, Calculator.class, CalculatorMetrics.class, SimpleMeterRegistry.class, CalculationConfig.class})
 class CalculatorServiceTest {
 
     @MockBean
-    private DataBaseDataStore dataStore;
+    private DataStore dataStore;
 
     @Autowired
     private CalculatorService service;
 
+    @Autowired
+    private SingleFlight<ResultKey, Result> calculations;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CalculationBudgets budgets;
+
     @Captor
     private ArgumentCaptor<Result> resultArgumentCaptor;
 
+    @Captor
+    private ArgumentCaptor<List<Result>> resultListArgumentCaptor;
+
+    @Captor
+    private ArgumentCaptor<Collection<ResultKey>> keysArgumentCaptor;
+
     @Captor
     private ArgumentCaptor<String> stringArgumentCaptor;
 
@@ -84,6 +123,22 @@ class CalculatorServiceTest {
         verify(dataStore, times(0)).save(any());
     }
 
+    @Test
+    void shouldAnswerStoredResultsWhileComputationBudgetIsFull() {
+        String numbers = "10.0,20.0,30.0";
+        given(dataStore.findByNumbersAndOperation(eq(numbers), eq(ADDITION))).willReturn(Optional.of(getResultWithTestData(ADDITION, 60.0, numbers)));
+        given(dataStore.findByNumbersAndOperation(eq("1.0,2.0"), eq(ADDITION))).willReturn(Optional.empty());
+
+        try (ConcurrencyLimiter.Permit permit = budgets.computations().acquire(budgets.computations().limit())) {
+            assertThat(service.calculate(new InputRequest(List.of(10.0, 20.0, 30.0)), ADDITION).result().doubleValue()).isEqualTo(60.0);
+            assertThatExceptionOfType(OverloadedException.class)
+                    .isThrownBy(() -> service.calculate(new InputRequest(List.of(1.0, 2.0)), ADDITION))
+                    .withMessageStartingWith("Calculations are over their limit");
+        }
+        verify(dataStore, times(0)).save(any());
+        assertThat(budgets.computations().rejected()).isEqualTo(1);
+    }
+
     @Test
     void shouldThrowEmptyInputsExceptionIfInputRequestHasNoNumber() {
         InputRequest inputRequest = new InputRequest(List.of());
@@ -255,6 +310,162 @@ class CalculatorServiceTest {
                 .withMessage("Result does not exist");
     }
 
+    @Test
+    void shouldCalculateBatchWithOneLookupAndOneSave() {
+        given(dataStore.findAllByKeys(anyCollection())).willReturn(List.of(getResultWithTestData(ADDITION, 60.0, "10.0,20.0,30.0")));
+        given(dataStore.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        BatchRequest request = new BatchRequest(List.of(
+                new BatchItem(ADDITION, List.of(30.0, 10.0, 20.0)),
+                new BatchItem(SUBTRACTION, List.of(10.0, 20.0, 30.0)),
+                new BatchItem(MULTIPLICATION, List.of(2.0, 3.0, 4.0)),
+                new BatchItem(SUBTRACTION, List.of(10.0, 20.0, 30.0))));
+
+        BatchResponse response = service.calculateBatch(request);
+
+        assertThat(response.results()).extracting("result").containsExactly(60.0, -40.0, 24.0, -40.0);
+        verify(dataStore).findAllByKeys(keysArgumentCaptor.capture());
+        assertThat(keysArgumentCaptor.getValue()).contains(new ResultKey("10.0,20.0,30.0", ADDITION), new ResultKey("10.0,20.0,30.0", SUBTRACTION));
+        verify(dataStore).saveAll(resultListArgumentCaptor.capture());
+        assertThat(resultListArgumentCaptor.getValue())
+                .extracting("numbers", "operation", "result")
+                .containsExactly(
+                        tuple("10.0,20.0,30.0", SUBTRACTION, -40.0),
+                        tuple("2.0,3.0,4.0", MULTIPLICATION, 24.0));
+        verify(dataStore, times(0)).save(any());
+    }
+
+    @Test
+    void shouldReturnErrorPerBatchItemThatCannotBeCalculated() {
+        given(dataStore.findAllByKeys(anyCollection())).willReturn(List.of());
+        given(dataStore.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        BatchRequest request = new BatchRequest(List.of(
+                new BatchItem(DIVISION, List.of(30.0, 0.0)),
+                new BatchItem(ADDITION, List.of()),
+                new BatchItem(DIVISION, List.of(30.0, 2.0)),
+                new BatchItem(Operation.EXPRESSION, List.of(1.0, 2.0))));
+
+        BatchResponse response = service.calculateBatch(request);
+
+        assertThat(response.results()).hasSize(4);
+        assertThat(response.results().get(0).result()).isNull();
+        assertThat(response.results().get(0).error().message()).isEqualTo("Divide by zero.");
+        assertThat(response.results().get(1).error().message()).isEqualTo("No number to do the operation");
+        assertThat(response.results().get(2).result()).isEqualTo(15.0);
+        assertThat(response.results().get(3).error().status()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.results().get(3).error().message()).isEqualTo("Expressions are only evaluated by /expression");
+        verify(dataStore).saveAll(resultListArgumentCaptor.capture());
+        assertThat(resultListArgumentCaptor.getValue()).hasSize(1);
+    }
+
+    @Test
+    void shouldCalculateAndSaveOnceForConcurrentIdenticalRequests() throws Exception {
+        int threads = 16;
+        long followersBefore = calculations.followers();
+        AtomicReference<Result> stored = new AtomicReference<>();
+        given(dataStore.findByNumbersAndOperation(anyString(), any())).willAnswer(invocation -> Optional.ofNullable(stored.get()));
+        given(dataStore.save(any())).willAnswer(invocation -> {
+            SingleFlightTest.awaitFollowers(calculations, followersBefore + threads - 1);
+            stored.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ResultResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return service.calculate(new InputRequest(List.of(30.0, 10.0, 20.0)), ADDITION);
+                }));
+            }
+            start.countDown();
+
+            for (Future<ResultResponse> response : responses) {
+                assertThat(response.get(10, TimeUnit.SECONDS).result()).isEqualTo(60.0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(dataStore, times(1)).save(any());
+        assertThat(calculations.followers() - followersBefore).isEqualTo(threads - 1);
+    }
+
+    @Test
+    void shouldRecordReusedAndComputedResults() {
+        double reusedBefore = meterRegistry.counter("calculator.results", "operation", "DIVISION", "outcome", "reused").count();
+        double computedBefore = meterRegistry.counter("calculator.results", "operation", "DIVISION", "outcome", "computed").count();
+        long persistedBefore = meterRegistry.timer("calculator.persist", "operation", "DIVISION").count();
+        Result stored = getResultWithTestData(DIVISION, 5.0, "30.0,2.0,3.0");
+        given(dataStore.findByNumbersAndOperation(anyString(), any())).willReturn(Optional.empty(), Optional.empty(), Optional.of(stored));
+        given(dataStore.save(any())).willReturn(stored);
+
+        service.calculate(new InputRequest(List.of(30.0, 2.0, 3.0)), DIVISION);
+        service.calculate(new InputRequest(List.of(30.0, 2.0, 3.0)), DIVISION);
+
+        assertThat(meterRegistry.counter("calculator.results", "operation", "DIVISION", "outcome", "computed").count() - computedBefore).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("calculator.results", "operation", "DIVISION", "outcome", "reused").count() - reusedBefore).isEqualTo(1.0);
+        assertThat(meterRegistry.timer("calculator.persist", "operation", "DIVISION").count() - persistedBefore).isEqualTo(1);
+        assertThat(meterRegistry.summary("calculator.inputs", "operation", "DIVISION").max()).isEqualTo(3.0);
+    }
+
+    @Nested
+    @TestPropertySource(properties = "calculator.planner.enabled=true")
+    class WithPlanner {
+
+        @Autowired
+        private DataStore dataStore;
+
+        @Autowired
+        private CalculatorService service;
+
+        @Autowired
+        private CalculationPlanner planner;
+
+        @Test
+        void shouldCalculateCheapCalculationWithoutStore() {
+            planner.lookedUp(SUBTRACTION, 1_000_000);
+            planner.calculated(SUBTRACTION, 1, 1);
+
+            ResultResponse response = service.calculate(new InputRequest(List.of(10.0, 4.0)), SUBTRACTION);
+
+            assertThat(response.result().doubleValue()).isEqualTo(6.0);
+            verifyNoInteractions(dataStore);
+            assertThat(planner.decisions(SUBTRACTION, CalculationPlanner.Plan.INLINE)).isEqualTo(1);
+        }
+
+        @Test
+        void shouldGiveTheStoredResultWhateverTheOrderOfTheInputs() {
+            List<Double> inputs = List.of(10.0, 40.7, 3.6, 65.9, 71.1, 15.3);
+            List<Double> reversed = new ArrayList<>(inputs);
+            Collections.reverse(reversed);
+            given(dataStore.findByNumbersAndOperation(anyString(), any())).willReturn(Optional.empty());
+            given(dataStore.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+            ResultResponse stored = service.calculate(new InputRequest(inputs), ADDITION);
+            planner.lookedUp(ADDITION, 1_000_000_000);
+            planner.calculated(ADDITION, 1, 1);
+
+            ResultResponse inline = service.calculate(new InputRequest(inputs), ADDITION);
+            ResultResponse inlineReversed = service.calculate(new InputRequest(reversed), ADDITION);
+
+            assertThat(planner.decisions(ADDITION, CalculationPlanner.Plan.STORED)).isEqualTo(1);
+            assertThat(planner.decisions(ADDITION, CalculationPlanner.Plan.INLINE)).isEqualTo(2);
+            assertThat(inline.result()).isEqualTo(stored.result());
+            assertThat(inlineReversed.result()).isEqualTo(stored.result());
+        }
+
+        @Test
+        void shouldStoreCalculationWithMoreThanMaxInputs() {
+            given(dataStore.findByNumbersAndOperation(anyString(), any())).willReturn(Optional.empty());
+            given(dataStore.save(any())).willReturn(getResultWithTestData(MULTIPLICATION, 1.0, "1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0,1.0"));
+            planner.lookedUp(MULTIPLICATION, 1_000_000);
+            planner.calculated(MULTIPLICATION, 1, 1);
+
+            service.calculate(new InputRequest(List.of(1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0)), MULTIPLICATION);
+
+            verify(dataStore).save(any());
+        }
+    }
+
     private Result getResultWithTestData(Operation operation, Double result, String numbers) {
         return Result.builder()
                 .operation(operation)
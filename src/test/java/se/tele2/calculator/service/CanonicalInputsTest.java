@@ -0,0 +1,47 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CanonicalInputsTest {
+
+    @Test
+    void shouldJoinInputsLikeDoubleToString() {
+        double[] inputs = {-0.0, 1.0E10, 0.1, Double.NaN, Double.NEGATIVE_INFINITY, 1.0E-7, 30};
+
+        String numbers = CanonicalInputs.of(inputs);
+
+        assertThat(numbers).isEqualTo(Arrays.stream(inputs)
+                .mapToObj(Double::toString)
+                .collect(Collectors.joining(",")));
+    }
+
+    @Test
+    void shouldReturnEmptyTextForNoInputs() {
+        assertThat(CanonicalInputs.of(new double[0])).isEmpty();
+    }
+
+    @Test
+    void shouldOnlyAllocateTheReturnedText() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[] inputs = new double[1000];
+        Arrays.setAll(inputs, i -> i * 1.5);
+        String numbers = CanonicalInputs.of(inputs);
+        for (int i = 0; i < 1000; i++) {
+            CanonicalInputs.of(inputs);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100; i++) {
+            CanonicalInputs.of(inputs);
+        }
+        long perCall = (threads.getCurrentThreadAllocatedBytes() - before) / 100;
+
+        assertThat(perCall).isLessThan(numbers.length() + 256L);
+    }
+}
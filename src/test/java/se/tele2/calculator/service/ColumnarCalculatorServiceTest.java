@@ -0,0 +1,136 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.config.CalculationConfig;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.ColumnarRequest;
+import se.tele2.calculator.model.ColumnarResponse;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.repository.DataStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.SUBTRACTION;
+
+@ExtendWith(SpringExtension.class)
+@Import({ColumnarCalculatorService.class, Calculator.class, CalculationConfig.class})
+class ColumnarCalculatorServiceTest {
+
+    @MockBean
+    private DataStore dataStore;
+
+    @Autowired
+    private ColumnarCalculatorService service;
+
+    @Autowired
+    private Calculator calculator;
+
+    @Test
+    void shouldGiveSameResultsAsSingleCalculations() {
+        Random random = new Random(5);
+        for (Operation operation : List.of(ADDITION, Operation.MULTIPLICATION, SUBTRACTION, DIVISION)) {
+            List<double[]> rows = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                rows.add(random.doubles(random.nextInt(1, 12), 0.5, 1.5).toArray());
+            }
+
+            ColumnarResponse response = service.calculate(columnar(rows), operation, false);
+
+            for (int i = 0; i < rows.size(); i++) {
+                double[] inputs = rows.get(i).clone();
+                calculator.key(inputs, operation);
+                assertThat(Double.doubleToRawLongBits(response.results()[i]))
+                        .isEqualTo(Double.doubleToRawLongBits(calculator.calculate(inputs, operation)));
+            }
+            assertThat(response.errors()).isEmpty();
+        }
+        verifyNoInteractions(dataStore);
+    }
+
+    @Test
+    void shouldReportFailedRowsAndCalculateTheOthers() {
+        ColumnarRequest request = new ColumnarRequest(new double[]{8, 2, 1, 0, 9, 3}, new int[]{0, 2, 4, 4, 6});
+
+        ColumnarResponse response = service.calculate(request, DIVISION, false);
+
+        assertThat(response.results()).containsExactly(4.0, Double.NaN, Double.NaN, 3.0);
+        assertThat(response.errors()).extracting(error -> error.row()).containsExactly(1, 2);
+        assertThat(response.errors()).extracting(error -> error.error().message())
+                .containsExactly("Divide by zero.", "No number to do the operation");
+    }
+
+    @Test
+    void shouldSaveOnlyNewResultsInChunks() {
+        int rows = ColumnarCalculatorService.CHUNK_SIZE * 2 + 500;
+        List<double[]> inputs = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            inputs.add(new double[]{i, 1});
+        }
+        inputs.add(new double[]{0, 1});
+        given(dataStore.findAllByKeys(anyCollection())).willReturn(List.of(Result.builder()
+                .operation(SUBTRACTION)
+                .result(-1.0)
+                .numbers("0.0,1.0")
+                .build()));
+
+        service.calculate(columnar(inputs), SUBTRACTION, true);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Result>> saved = ArgumentCaptor.forClass(List.class);
+        verify(dataStore, times(3)).findAllByKeys(anyCollection());
+        verify(dataStore, times(3)).saveAll(saved.capture());
+        List<Result> all = saved.getAllValues().stream().flatMap(List::stream).toList();
+        assertThat(all).hasSize(rows - 1);
+        assertThat(all.get(0).getNumbers()).isEqualTo("1.0,1.0");
+        assertThat(all.get(0).getResult()).isEqualTo(0.0);
+    }
+
+    @Test
+    void shouldRejectInvalidOffsets() {
+        assertThatThrownBy(() -> service.calculate(new ColumnarRequest(new double[]{1, 2}, new int[]{0, 1}), ADDITION, false))
+                .isInstanceOf(InvalidInputsException.class);
+        assertThatThrownBy(() -> service.calculate(new ColumnarRequest(new double[]{1, 2}, new int[]{0, 2, 1, 2}), ADDITION, false))
+                .isInstanceOf(InvalidInputsException.class);
+        assertThatThrownBy(() -> service.calculate(new ColumnarRequest(new double[0], new int[0]), ADDITION, false))
+                .isInstanceOf(InvalidInputsException.class);
+    }
+
+    @Test
+    void shouldRejectExpressions() {
+        assertThatThrownBy(() -> service.calculate(new ColumnarRequest(new double[]{1, 2}, new int[]{0, 2}), Operation.EXPRESSION, true))
+                .isInstanceOf(InvalidInputsException.class)
+                .hasMessage("Expressions are only evaluated by /expression");
+        verifyNoInteractions(dataStore);
+    }
+
+    private static ColumnarRequest columnar(List<double[]> rows) {
+        int[] offsets = new int[rows.size() + 1];
+        for (int i = 0; i < rows.size(); i++) {
+            offsets[i + 1] = offsets[i] + rows.get(i).length;
+        }
+        double[] values = new double[offsets[rows.size()]];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, values, offsets[i], rows.get(i).length);
+        }
+        return new ColumnarRequest(values, offsets);
+    }
+}
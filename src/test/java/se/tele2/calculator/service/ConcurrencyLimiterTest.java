@@ -0,0 +1,96 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+import se.tele2.calculator.exception.OverloadedException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ConcurrencyLimiterTest {
+
+    private long now;
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter("Calculations", 1000, 100, 10000, 2.0, 0.5, () -> now);
+
+    @Test
+    void shouldRejectInputsOverLimit() {
+        try (ConcurrencyLimiter.Permit permit = limiter.acquire(800)) {
+            assertThat(limiter.inFlight()).isEqualTo(800);
+            try (ConcurrencyLimiter.Permit small = limiter.acquire(200)) {
+                assertThatExceptionOfType(OverloadedException.class)
+                        .isThrownBy(() -> limiter.acquire(1))
+                        .withMessage("Calculations are over their limit of 1000 inputs in progress");
+            }
+        }
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAdmitRequestOverLimitWhenNothingIsInProgress() {
+        try (ConcurrencyLimiter.Permit permit = limiter.acquire(1_000_000)) {
+            assertThatExceptionOfType(OverloadedException.class)
+                    .isThrownBy(() -> limiter.acquire(1));
+        }
+    }
+
+    @Test
+    void shouldShrinkOncePerRoundWhenRequestsGetSlower() {
+        complete(300, 1);
+        ConcurrencyLimiter.Permit first = limiter.acquire(500);
+        ConcurrencyLimiter.Permit second = limiter.acquire(500);
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        first.close();
+        second.close();
+
+        assertThat(limiter.limit()).isEqualTo(500);
+    }
+
+    @Test
+    void shouldNotShrinkBelowMinimum() {
+        for (int i = 0; i < 10; i++) {
+            complete(100, 1);
+            complete(100, 1000);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldGrowWhileLimitIsUsedAndRequestsStayFast() {
+        complete(1000, 1);
+        assertThat(limiter.limit()).isEqualTo(1100);
+
+        complete(600, 1);
+        assertThat(limiter.limit()).isEqualTo(1154);
+    }
+
+    @Test
+    void shouldNotGrowWhileLimitIsNotUsed() {
+        for (int i = 0; i < 10; i++) {
+            complete(10, 1);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(1000);
+    }
+
+    @Test
+    void shouldRetryAfterAverageLatency() {
+        complete(300, 2500);
+        ConcurrencyLimiter.Permit permit = limiter.acquire(1000);
+
+        assertThatExceptionOfType(OverloadedException.class)
+                .isThrownBy(() -> limiter.acquire(1))
+                .extracting(OverloadedException::getRetryAfterSeconds)
+                .isEqualTo(3L);
+        permit.close();
+    }
+
+    private void complete(int inputs, long millis) {
+        try (ConcurrencyLimiter.Permit permit = limiter.acquire(inputs)) {
+            now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+    }
+}
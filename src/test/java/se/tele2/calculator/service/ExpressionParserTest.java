@@ -0,0 +1,74 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+import se.tele2.calculator.exception.InvalidInputsException;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExpressionParserTest {
+
+    @Test
+    void shouldEvaluateWithPrecedenceAndParentheses() {
+        assertThat(evaluate("1 + 2 * 3")).isEqualTo(7.0);
+        assertThat(evaluate("(1 + 2) * 3")).isEqualTo(9.0);
+        assertThat(evaluate("8 / 4 / 2")).isEqualTo(1.0);
+        assertThat(evaluate("10 - 4 - 3")).isEqualTo(3.0);
+        assertThat(evaluate("-(2 + 3) * -2")).isEqualTo(10.0);
+        assertThat(evaluate("1.5e2 + .5")).isEqualTo(150.5);
+    }
+
+    @Test
+    void shouldEvaluateWithBoundVariables() {
+        CompiledExpression expression = ExpressionParser.compile("(a + b) * c / d");
+
+        double[] values = expression.bind(Map.of("a", 1.0, "b", 2.0, "c", 3.0, "d", 4.0, "unused", 5.0));
+
+        assertThat(expression.variables()).containsExactly("a", "b", "c", "d");
+        assertThat(expression.evaluate(values)).isEqualTo(2.25);
+    }
+
+    @Test
+    void shouldShareCanonicalFormAcrossNamesAndFormatting() {
+        CompiledExpression first = ExpressionParser.compile("(x + y) * x");
+        CompiledExpression second = ExpressionParser.compile("((a)+b)*a");
+
+        assertThat(first.canonical()).isEqualTo("(($0+$1)*$0)");
+        assertThat(second.canonical()).isEqualTo(first.canonical());
+        assertThat(ExpressionParser.compile("-2*3").canonical()).isEqualTo("((-2.0)*3.0)");
+    }
+
+    @Test
+    void shouldThrowWhenDividingByZero() {
+        CompiledExpression expression = ExpressionParser.compile("a / (b - b)");
+
+        assertThatThrownBy(() -> expression.evaluate(new double[]{1, 2})).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldRejectInvalidExpressions() {
+        assertThatThrownBy(() -> ExpressionParser.compile("1 +")).isInstanceOf(InvalidInputsException.class)
+                .hasMessage("Unexpected end of expression");
+        assertThatThrownBy(() -> ExpressionParser.compile("(1 + 2")).isInstanceOf(InvalidInputsException.class);
+        assertThatThrownBy(() -> ExpressionParser.compile("1 + 2)")).isInstanceOf(InvalidInputsException.class)
+                .hasMessage("Unexpected ')' at position 5");
+        assertThatThrownBy(() -> ExpressionParser.compile("1..2")).isInstanceOf(InvalidInputsException.class);
+        assertThatThrownBy(() -> ExpressionParser.compile("2 ^ 3")).isInstanceOf(InvalidInputsException.class);
+        assertThatThrownBy(() -> ExpressionParser.compile("(".repeat(ExpressionParser.MAX_DEPTH + 1) + "1"))
+                .isInstanceOf(InvalidInputsException.class);
+        assertThatThrownBy(() -> ExpressionParser.compile("a + b").bind(Map.of("a", 1.0)))
+                .isInstanceOf(InvalidInputsException.class)
+                .hasMessage("No value for variable b");
+    }
+
+    @Test
+    void shouldCompileLongFlatExpressions() {
+        assertThat(evaluate("1" + "+1".repeat(4_999))).isEqualTo(5_000.0);
+    }
+
+    private static double evaluate(String text) {
+        return ExpressionParser.compile(text).evaluate(new double[0]);
+    }
+}
@@ -0,0 +1,87 @@
+package se.tele2.calculator.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.config.CalculationConfig;
+import se.tele2.calculator.model.ExpressionRequest;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.model.ResultResponse;
+import se.tele2.calculator.repository.DataStore;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static se.tele2.calculator.model.Operation.EXPRESSION;
+
+@ExtendWith(SpringExtension.class)
+@Import({ExpressionService.class, CalculatorService.class, Calculator.class, CalculatorMetrics.class,
+        SimpleMeterRegistry.class, CalculationConfig.class})
+class ExpressionServiceTest {
+
+    @MockBean
+    private DataStore dataStore;
+
+    @Autowired
+    private ExpressionService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldEvaluateAndStoreUnderCanonicalKey() {
+        given(dataStore.findByNumbersAndOperation(anyString(), eq(EXPRESSION))).willReturn(Optional.empty());
+        given(dataStore.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        ResultResponse response = service.evaluate(new ExpressionRequest("(a + b) * c / d",
+                Map.of("a", 1.0, "b", 2.0, "c", 3.0, "d", 4.0)));
+
+        ArgumentCaptor<Result> saved = ArgumentCaptor.forClass(Result.class);
+        verify(dataStore).save(saved.capture());
+        assertThat(response.result()).isEqualTo(2.25);
+        assertThat(saved.getValue().getOperation()).isEqualTo(EXPRESSION);
+        assertThat(saved.getValue().getNumbers()).isEqualTo("((($0+$1)*$2)/$3);1.0,2.0,3.0,4.0");
+    }
+
+    @Test
+    void shouldReuseStoredEvaluation() {
+        given(dataStore.findByNumbersAndOperation("(2.0*$0);3.0", EXPRESSION)).willReturn(Optional.of(Result.builder()
+                .operation(EXPRESSION)
+                .result(6.0)
+                .numbers("(2.0*$0);3.0")
+                .build()));
+
+        ResultResponse response = service.evaluate(new ExpressionRequest("2 * n", Map.of("n", 3.0)));
+
+        assertThat(response.result()).isEqualTo(6.0);
+        verify(dataStore, never()).save(any());
+    }
+
+    @Test
+    void shouldParseRepeatedExpressionOnce() {
+        given(dataStore.findByNumbersAndOperation(anyString(), eq(EXPRESSION))).willReturn(Optional.empty());
+        given(dataStore.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < 3; i++) {
+            service.evaluate(new ExpressionRequest("x - 1", Map.of("x", (double) i)));
+        }
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "expressions").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "expressions").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+}
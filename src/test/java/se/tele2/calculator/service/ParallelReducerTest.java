@@ -0,0 +1,60 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+import static se.tele2.calculator.model.Operation.SUBTRACTION;
+
+class ParallelReducerTest {
+
+    private final ParallelReducer sequential = new ParallelReducer(Integer.MAX_VALUE, 1);
+    private final ParallelReducer parallel = new ParallelReducer(1, 4);
+    private final ParallelReducer singleThreaded = new ParallelReducer(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        sequential.shutdown();
+        parallel.shutdown();
+        singleThreaded.shutdown();
+    }
+
+    @Test
+    void shouldFoldWithKernelUpToLeafSize() {
+        double[] inputs = new Random(1).doubles(ParallelReducer.LEAF_SIZE, -1000, 1000).toArray();
+
+        assertThat(parallel.reduce(inputs, ADDITION)).isEqualTo(ReductionKernel.fold(inputs, 0, inputs.length, ADDITION));
+    }
+
+    @Test
+    void shouldGiveBitIdenticalSumWhereverTheTreeIsEvaluated() {
+        double[] inputs = new Random(2).doubles(1_000_003, -1000, 1000).toArray();
+
+        long expected = Double.doubleToRawLongBits(sequential.reduce(inputs, ADDITION));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(Double.doubleToRawLongBits(parallel.reduce(inputs, ADDITION))).isEqualTo(expected);
+            assertThat(Double.doubleToRawLongBits(singleThreaded.reduce(inputs, ADDITION))).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldGiveBitIdenticalProductWhereverTheTreeIsEvaluated() {
+        double[] inputs = new Random(3).doubles(300_000, 0.999, 1.001).toArray();
+
+        long expected = Double.doubleToRawLongBits(sequential.reduce(inputs, MULTIPLICATION));
+
+        assertThat(Double.doubleToRawLongBits(parallel.reduce(inputs, MULTIPLICATION))).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldRejectOperationThatIsNotAssociative() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> parallel.reduce(new double[]{1.0, 2.0}, SUBTRACTION));
+    }
+}
@@ -0,0 +1,57 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+import se.tele2.calculator.model.Operation;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+
+class ReductionKernelTest {
+
+    @Test
+    void shouldFoldFewInputsFromLeftToRight() {
+        double[] inputs = {0.1, 0.2, 0.3};
+
+        assertThat(ReductionKernel.fold(inputs, 0, 3, ADDITION)).isEqualTo(0.1 + 0.2 + 0.3);
+        assertThat(ReductionKernel.fold(inputs, 0, 3, MULTIPLICATION)).isEqualTo(0.1 * 0.2 * 0.3);
+    }
+
+    @Test
+    void shouldCombineLanesBeforeTail() {
+        double[] inputs = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+
+        assertThat(ReductionKernel.fold(inputs, 0, inputs.length, ADDITION)).isEqualTo(66.0);
+        assertThat(ReductionKernel.fold(inputs, 0, inputs.length, MULTIPLICATION)).isEqualTo(39916800.0);
+        assertThat(ReductionKernel.fold(new double[]{-0.0, -0.0, -0.0, -0.0}, 0, 4, ADDITION)).isEqualTo(-0.0);
+    }
+
+    @Test
+    void shouldGiveBitIdenticalResultsWithVectorAndScalarKernels() {
+        assumeTrue(ReductionKernel.VECTORIZED, "Vector API is not available");
+        Random random = new Random(4);
+        for (int size = 6; size < 300; size++) {
+            double[] inputs = random.doubles(size, -1000, 1000).toArray();
+            for (Operation operation : new Operation[]{ADDITION, MULTIPLICATION}) {
+                int from = size % 3;
+                assertThat(Double.doubleToRawLongBits(VectorReductionKernel.fold(inputs, from, size, operation)))
+                        .isEqualTo(Double.doubleToRawLongBits(ScalarReductionKernel.fold(inputs, from, size, operation)));
+            }
+        }
+    }
+
+    @Test
+    void shouldFindZeroDivisor() {
+        double[] inputs = new Random(5).doubles(1001, 1, 2).toArray();
+
+        assertThat(ReductionKernel.containsZero(inputs, 1, inputs.length)).isFalse();
+        inputs[997] = -0.0;
+        assertThat(ReductionKernel.containsZero(inputs, 1, inputs.length)).isTrue();
+        assertThat(ReductionKernel.containsZero(inputs, 1, 997)).isFalse();
+        inputs[0] = 0.0;
+        assertThat(ReductionKernel.containsZero(inputs, 1, 997)).isFalse();
+    }
+}
@@ -0,0 +1,68 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import se.tele2.calculator.model.Operation;
+import se.tele2.calculator.model.Result;
+import se.tele2.calculator.repository.ResultExporter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(SpringExtension.class)
+@Import(ResultExportService.class)
+class ResultExportServiceTest {
+
+    @MockBean
+    private ResultExporter exporter;
+
+    @Autowired
+    private ResultExportService service;
+
+    @BeforeEach
+    void setUp() {
+        given(exporter.export(eq(7), any())).willAnswer(invocation -> {
+            Consumer<Result> consumer = invocation.getArgument(1);
+            consumer.accept(Result.builder().id(8).operation(Operation.ADDITION).result(3.0).numbers("1.0,2.0").build());
+            consumer.accept(Result.builder().id(9).operation(Operation.DIVISION).result(0.5).numbers("1.0,2.0").build());
+            return 2L;
+        });
+    }
+
+    @Test
+    void shouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        service.export(body, MediaType.APPLICATION_NDJSON, 7);
+
+        assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"id":8,"operation":"ADDITION","result":3.0,"numbers":"1.0,2.0"}
+                {"id":9,"operation":"DIVISION","result":0.5,"numbers":"1.0,2.0"}
+                """);
+    }
+
+    @Test
+    void shouldWriteCsvWithQuotedNumbers() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        service.export(body, StreamingCalculatorService.TEXT_CSV, 7);
+
+        assertThat(body.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                id,operation,result,numbers
+                8,ADDITION,3.0,"1.0,2.0"
+                9,DIVISION,0.5,"1.0,2.0"
+                """);
+    }
+}
@@ -0,0 +1,93 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void shouldRunWorkOnceForConcurrentCallersOfOneKey() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return singleFlight.execute("key", () -> {
+                        awaitFollowers(singleFlight, THREADS - 1);
+                        return runs.incrementAndGet();
+                    });
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> future : futures) {
+                assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(singleFlight.leaders()).isEqualTo(1);
+        assertThat(singleFlight.followers()).isEqualTo(THREADS - 1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    void shouldRunWorkAgainOnceLeaderIsDone() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        singleFlight.execute("key", runs::incrementAndGet);
+        singleFlight.execute("key", runs::incrementAndGet);
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(singleFlight.leaders()).isEqualTo(2);
+        assertThat(singleFlight.followers()).isZero();
+    }
+
+    @Test
+    void shouldGiveFollowersTheExceptionOfTheLeader() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+                awaitFollowers(singleFlight, 1);
+                throw new ArithmeticException("Divide by zero.");
+            }));
+            while (singleFlight.inFlight() == 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThatExceptionOfType(ArithmeticException.class)
+                    .isThrownBy(() -> singleFlight.execute("key", () -> 1))
+                    .withMessage("Divide by zero.");
+            assertThat(leader).failsWithin(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static void awaitFollowers(SingleFlight<?, ?> singleFlight, long followers) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.followers() < followers && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
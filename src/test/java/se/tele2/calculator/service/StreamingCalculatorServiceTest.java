@@ -0,0 +1,93 @@
+package se.tele2.calculator.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import se.tele2.calculator.exception.EmptyInputsException;
+import se.tele2.calculator.exception.InvalidInputsException;
+import se.tele2.calculator.model.ResultResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static se.tele2.calculator.model.Operation.ADDITION;
+import static se.tele2.calculator.model.Operation.DIVISION;
+import static se.tele2.calculator.model.Operation.MULTIPLICATION;
+import static se.tele2.calculator.model.Operation.SUBTRACTION;
+import static se.tele2.calculator.service.StreamingCalculatorService.TEXT_CSV;
+
+class StreamingCalculatorServiceTest {
+
+    private final StreamingCalculatorService service = new StreamingCalculatorService();
+
+    @Test
+    void shouldAddJsonArray() {
+        ResultResponse response = service.calculate(body("[10.0, 20, 30.0]"), MediaType.APPLICATION_JSON, ADDITION);
+
+        assertThat(response.result()).isEqualTo(60.0);
+    }
+
+    @Test
+    void shouldSubtractInputsOfJsonObject() {
+        ResultResponse response = service.calculate(body("{\"inputs\": [10.0, 20.0, 30.0]}"), MediaType.APPLICATION_JSON, SUBTRACTION);
+
+        assertThat(response.result()).isEqualTo(-40.0);
+    }
+
+    @Test
+    void shouldMultiplyNdjsonChunks() {
+        ResultResponse response = service.calculate(body("[2.0, 3.0]\n4.0\n[0.5]\n"), MediaType.APPLICATION_NDJSON, MULTIPLICATION);
+
+        assertThat(response.result()).isEqualTo(12.0);
+    }
+
+    @Test
+    void shouldDivideCsv() {
+        ResultResponse response = service.calculate(body("30.0,2.0\r\n3.0\n"), TEXT_CSV, DIVISION);
+
+        assertThat(response.result()).isEqualTo(5.0);
+    }
+
+    @Test
+    void shouldThrowArithmeticExceptionIfStreamedDivisorIsZero() {
+        assertThatExceptionOfType(ArithmeticException.class)
+                .isThrownBy(() -> service.calculate(body("30.0,0.0,3.0"), TEXT_CSV, DIVISION))
+                .withMessage("Divide by zero.");
+    }
+
+    @Test
+    void shouldThrowEmptyInputsExceptionIfStreamHasNoNumber() {
+        assertThatExceptionOfType(EmptyInputsException.class)
+                .isThrownBy(() -> service.calculate(body("{\"inputs\": []}"), MediaType.APPLICATION_JSON, ADDITION))
+                .withMessage("No number to do the operation");
+    }
+
+    @Test
+    void shouldThrowInvalidInputsExceptionIfInputIsNotANumber() {
+        assertThatExceptionOfType(InvalidInputsException.class)
+                .isThrownBy(() -> service.calculate(body("[1.0, \"two\"]"), MediaType.APPLICATION_JSON, ADDITION));
+        assertThatExceptionOfType(InvalidInputsException.class)
+                .isThrownBy(() -> service.calculate(body("1.0,two"), TEXT_CSV, ADDITION));
+    }
+
+    @Test
+    void shouldAddManyStreamedNumbers() {
+        InputStream numbers = new SequenceInputStream(Collections.enumeration(IntStream.range(0, 100_000)
+                .mapToObj(i -> body(i == 0 ? "[1" : ",1"))
+                .toList()));
+        InputStream body = new SequenceInputStream(numbers, body("]"));
+
+        ResultResponse response = service.calculate(body, MediaType.APPLICATION_JSON, ADDITION);
+
+        assertThat(response.result()).isEqualTo(100_000.0);
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}